@@ -13,6 +13,8 @@ public class Frame extends JFrame {
 
     private Arena arena;
     private gamePanel gamePanel;
+    private Timer renderLoop;
+    public static final int FPS = 30;
 
     /**
      * Constructor
@@ -37,6 +39,7 @@ public class Frame extends JFrame {
         this.arena = arena;
         initPanel();
         this.setVisible(true); // Makes frame visible
+        startRendering();
     }
 
     /**
@@ -48,12 +51,26 @@ public class Frame extends JFrame {
     }
 
     /**
-     * Updates the frame during the game all the time.
-     *
-     * @param score
+     * Starts the render loop - shows the last snapshot of the arena FPS times a second on the event dispatch thread.
+     * The game thread never waits for the painting, it only publishes snapshots of the arena.
      */
-    public void update(int score){
-        gamePanel.update(score);
+    public void startRendering(){
+        if(renderLoop == null) {
+            renderLoop = new Timer(1000 / FPS, e -> gamePanel.renderTick());
+            renderLoop.setCoalesce(true);
+        }
+        renderLoop.start();
     }
-}
 
+    /**
+     * Stops the render loop after painting the last snapshot of the arena.
+     */
+    public void stopRendering(){
+        SwingUtilities.invokeLater(() -> {
+            if(renderLoop != null) {
+                renderLoop.stop();
+            }
+            gamePanel.renderTick();
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package Gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/**
+ * This class keeps the images of the game window decoded and scaled once,
+ * so painting a frame only copies ready images to the screen.
+ * The images are kept as compatible images of their drawn size,
+ * all of them are dropped when the window is resized.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+class SpriteCache {
+
+    private final Component owner;
+    private final HashMap<String, Image> sources;
+    private final HashMap<String, Image> sprites;
+
+    /**
+     * Constructor.
+     *
+     * @param owner represents the component the images are drawn on.
+     */
+    SpriteCache(Component owner) {
+        this.owner = owner;
+        this.sources = new HashMap<>();
+        this.sprites = new HashMap<>();
+    }
+
+    /**
+     * Returns the image in the given path scaled to the given size,
+     * the image is decoded and scaled only on the first call.
+     *
+     * @param path represents the path of the image file.
+     * @param w represents the width of the sprite.
+     * @param h represents the height of the sprite.
+     * @return the scaled image, null if the image could not be loaded.
+     */
+    Image sprite(String path, int w, int h) {
+        String key = path + "@" + w + "x" + h;
+        if (sprites.containsKey(key)) {
+            return sprites.get(key);
+        }
+        Image src = source(path);
+        Image ans = null;
+        if (src != null) {
+            ans = createImage(w, h);
+            Graphics2D g = (Graphics2D) ans.getGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(src, 0, 0, w, h, null);
+            g.dispose();
+        }
+        sprites.put(key, ans);
+        return ans;
+    }
+
+    /**
+     * Drops all the scaled images, called when the window is resized.
+     */
+    void invalidate() {
+        sprites.clear();
+    }
+
+    /**
+     * Returns the decoded image in the given path, decodes it only on the first call.
+     *
+     * @param path represents the path of the image file.
+     * @return the decoded image, null if the image could not be loaded.
+     */
+    private Image source(String path) {
+        if (!sources.containsKey(path)) {
+            ImageIcon icon = new ImageIcon(path);
+            sources.put(path, icon.getIconWidth() > 0 ? icon.getImage() : null);
+        }
+        return sources.get(path);
+    }
+
+    /**
+     * Creates a translucent image compatible with the screen of the owner.
+     */
+    private Image createImage(int w, int h) {
+        GraphicsConfiguration gc = owner.getGraphicsConfiguration();
+        if (gc == null) {
+            return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        }
+        return gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+    }
+}
@@ -6,6 +6,11 @@ import gameClient.util.*;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
@@ -26,10 +31,24 @@ public class gamePanel extends JPanel {
     private int w;
     private int h;
 
-    private Image background;
+    private static final String BACKGROUND = "./resources/GameBackground.png";
+    private static final String POKEMON = "./resources/Pokemon.png";
+    private static final String AGENT = "./resources/Agent.png";
+
+    private static final int POKEMON_R = 10;
+    private static final int AGENT_R = 8;
+    private static final Color POKEMON_TEXT = new Color(246, 243, 243, 255);
+    private static final BasicStroke EDGE_STROKE = new BasicStroke(2);
+
+    private final SpriteCache images;
+    private Image graphLayer; // The background and the graph, drawn once per window size.
+    private int graphLayerMC;
+    private ArenaSnapshot rendered; // The snapshot shown on the window.
+    private List<Rectangle> spriteBounds;
 
     private Arena arena;
     private gameClient.util.Range2Range _w2f;
+    private final double[] xy = new double[2]; // The frame position of the last world2frame(), reused by every drawing.
 
     /**
      * Constructor
@@ -40,31 +59,58 @@ public class gamePanel extends JPanel {
         super();
         this.setLayout(null);
 
-        background = new ImageIcon("./resources/GameBackground.png").getImage();
+        images = new SpriteCache(this);
+        this.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                images.invalidate();
+                graphLayer = null;
+            }
+        });
 
-        level = new JLabel("level: "+arena.getLevel());
+        ArenaSnapshot snapshot = arena.getSnapshot();
+        level = new JLabel("level: "+snapshot.getLevel());
         this.add(level);
-        time = new JLabel("time: "+(arena.gatGame().timeToEnd()/1000));
+        time = new JLabel("time: "+(snapshot.getTimeToEnd()/1000));
         this.add(time);
-        int grade = jsonToObject.score(arena.gatGame().toString());
-        score = new JLabel("score: "+grade);
+        score = new JLabel("score: "+snapshot.getScore());
         this.add(score);
-        int moving = jsonToObject.moves(arena.gatGame().toString());
-        moves = new JLabel("moves: "+moving);
+        moves = new JLabel("moves: "+snapshot.getMoves());
         this.add(moves);
+        for (JLabel l : new JLabel[]{level, time, score, moves}) {
+            l.setFont(new Font(Font.SERIF, Font.PLAIN,  20));
+        }
 
         this.arena = arena;
+        this.rendered = snapshot;
+        this.spriteBounds = new ArrayList<>();
     }
 
     /**
-     * Updates the window which displays game arena.
-     *
-     * @param score represents the score on the game.
+     * Shows the last snapshot of the arena on the window, called by the render loop of the frame.
+     * Only the regions around the sprites of the previous and the new snapshot are repainted,
+     * the rest of the window is left as is.
      */
-    protected void update(int score){
-//        int grade = jsonToObject.score(arena.gatGame().toString());
-        this.score.setText("score: "+score);
-        this.repaint();
+    protected void renderTick(){
+        ArenaSnapshot snapshot = arena.getSnapshot();
+        if(snapshot == rendered) {
+            return;
+        }
+        rendered = snapshot;
+        w = this.getWidth();
+        h = this.getHeight();
+        Info(snapshot);
+        if(!isGraphLayerValid()) {
+            spriteBounds = new ArrayList<>();
+            repaint();
+            return;
+        }
+        List<Rectangle> dirty = new ArrayList<>(spriteBounds);
+        spriteBounds = spriteBounds(snapshot);
+        dirty.addAll(spriteBounds);
+        for(Rectangle r : merge(dirty)) {
+            paintImmediately(r);
+        }
     }
 
     /**
@@ -74,8 +120,7 @@ public class gamePanel extends JPanel {
         Range rx = new Range(30,w-30);
         Range ry = new Range(h-30,60);
         Range2D frame = new Range2D(rx,ry);
-        directed_weighted_graph g = arena.getGraphAlgo().getGraph();
-        _w2f = Arena.w2f(g,frame);
+        _w2f = Arena.w2f(arena.getNodes(),frame);
     }
 
     /**
@@ -86,34 +131,119 @@ public class gamePanel extends JPanel {
      */
     @Override
     protected void paintComponent(Graphics g) {
+        long t = Metrics.start();
         super.paintComponent(g);
         w = this.getWidth();
         h = this.getHeight();
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.drawImage(background, 0,0, w, h, null);
+        if(!isGraphLayerValid()) {
+            drawGraphLayer();
+            Info(rendered);
+            spriteBounds = spriteBounds(rendered);
+        }
+        g.drawImage(graphLayer, 0, 0, null);
+        drawPokemons(g, rendered.getPokemons());
+        drawAgents(g, rendered.getAgents());
+        Metrics.stop(Metrics.Span.PAINT, t);
+    }
+
+    /**
+     * Checks if the layer of the background and the graph fits the window and the graph.
+     *
+     * @return true if the layer can be used as is.
+     */
+    private boolean isGraphLayerValid(){
+        return graphLayer != null && graphLayer.getWidth(null) == w && graphLayer.getHeight(null) == h
+                && graphLayerMC == arena.getGraphAlgo().getGraph().getMC();
+    }
+
+    /**
+     * Draws the background and the graph once to an image of the size of the window.
+     */
+    private void drawGraphLayer(){
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        int lw = Math.max(w, 1), lh = Math.max(h, 1);
+        graphLayer = gc != null ? gc.createCompatibleImage(lw, lh) : new BufferedImage(lw, lh, BufferedImage.TYPE_INT_RGB);
+        graphLayerMC = arena.getGraphAlgo().getGraph().getMC();
         updateFrame();
+        Graphics2D g = (Graphics2D) graphLayer.getGraphics();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, lw, lh);
+        g.drawImage(images.sprite(BACKGROUND, lw, lh), 0, 0, null);
         g.setColor(Color.BLACK);
         drawGraph(g);
-        drawPokemons(g);
-        drawAgents(g);
-        Info();
+        g.dispose();
+    }
+
+    /**
+     * Returns the regions of the window covered by the sprites of the given snapshot.
+     *
+     * @param snapshot represents the given snapshot.
+     * @return List<Rectangle>.
+     */
+    private List<Rectangle> spriteBounds(ArenaSnapshot snapshot){
+        List<Rectangle> ans = new ArrayList<>();
+        int r = POKEMON_R;
+        for(CL_Pokemon p : snapshot.getPokemons()) {
+            if(p.getPos() != null) {
+                world2frame(p.getPos());
+                ans.add(new Rectangle((int)xy[0]-r-7, (int)xy[1]-r-22, 6*r, 3*r+19)); // The sprite and the value above it.
+            }
+        }
+        r = AGENT_R;
+        for(CL_Agent a : snapshot.getAgents()) {
+            if(a.getPos() != null) {
+                world2frame(a.getPos());
+                ans.add(new Rectangle((int)xy[0]-2*r-2, (int)xy[1]-4*r-2, 5*r+4, 6*r+4));
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * Merges the overlapping rectangles of the given list, so no region is painted twice.
+     *
+     * @param rects represents the given list of rectangles.
+     * @return List<Rectangle>.
+     */
+    private static List<Rectangle> merge(List<Rectangle> rects){
+        List<Rectangle> ans = new ArrayList<>();
+        for(Rectangle r : rects) {
+            Rectangle m = new Rectangle(r);
+            boolean merged = true;
+            while(merged) {
+                merged = false;
+                Iterator<Rectangle> it = ans.iterator();
+                while(it.hasNext()) {
+                    Rectangle o = it.next();
+                    if(o.intersects(m)) {
+                        m.add(o);
+                        it.remove();
+                        merged = true;
+                    }
+                }
+            }
+            ans.add(m);
+        }
+        return ans;
     }
 
     /**
-     * Draws the graph on the window.
+     * Draws the graph on the layer of the graph - the locations are read from the arrays of arena.getNodes().
      *
      * @param g
      */
     private void drawGraph(Graphics g) {
         directed_weighted_graph graph = arena.getGraphAlgo().getGraph();
-        Iterator<node_data> it1 = graph.getV().iterator();
-        while(it1.hasNext()) {
-            node_data n = it1.next();
-            drawNode(n,5,g);
-            Iterator<edge_data> it2 = graph.getE(n.getKey()).iterator();
-            while(it2.hasNext()) {
-                edge_data e = it2.next();
-                drawEdge(e, g);
+        NodeStore nodes = arena.getNodes();
+        ((Graphics2D) g).setStroke(EDGE_STROKE);
+        for(int i = 0; i < nodes.size(); i++) {
+            drawNode(nodes, i, 5, g);
+            Collection<edge_data> out = graph.getE(nodes.key(i));
+            if(out == null) {
+                continue;
+            }
+            for(edge_data e : out) {
+                drawEdge(nodes, i, nodes.indexOf(e.getDest()), g);
             }
         }
     }
@@ -121,32 +251,30 @@ public class gamePanel extends JPanel {
     /**
      * Draws a node on the window.
      *
-     * @param n represents the given node needed to be drawn on the window.
+     * @param nodes represents the nodes of the graph.
+     * @param i represents the index of the node needed to be drawn on the window.
      * @param r represents a given range between the geo location of a given node and the location of the node in the drawing.
      * @param g
      */
-    private void drawNode(node_data n, int r, Graphics g) {
-        geo_location pos = n.getLocation();
-        geo_location fp = this._w2f.world2frame(pos);
-        g.fillOval((int)fp.x()-r, (int)fp.y()-r-2, 2*r+3, 2*r+3);
-        g.drawString(""+n.getKey(), (int)fp.x()-r+1, (int)fp.y()-2*r);
+    private void drawNode(NodeStore nodes, int i, int r, Graphics g) {
+        this._w2f.world2frame(nodes.x(i), nodes.y(i), xy);
+        g.fillOval((int)xy[0]-r, (int)xy[1]-r-2, 2*r+3, 2*r+3);
+        g.drawString(""+nodes.key(i), (int)xy[0]-r+1, (int)xy[1]-2*r);
     }
 
     /**
      * Draws an edge on the window.
      *
-     * @param e represents the given edge needed to be drawn on the window.
+     * @param nodes represents the nodes of the graph.
+     * @param s represents the index of the source of the edge.
+     * @param d represents the index of the destination of the edge.
      * @param g
      */
-    private void drawEdge(edge_data e, Graphics g) {
-        directed_weighted_graph gg = arena.getGraphAlgo().getGraph();
-        geo_location s = gg.getNode(e.getSrc()).getLocation();
-        geo_location d = gg.getNode(e.getDest()).getLocation();
-        geo_location s0 = this._w2f.world2frame(s);
-        geo_location d0 = this._w2f.world2frame(d);
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setStroke(new BasicStroke(2));
-        g.drawLine((int)s0.x(), (int)s0.y(), (int)d0.x(), (int)d0.y());
+    private void drawEdge(NodeStore nodes, int s, int d, Graphics g) {
+        this._w2f.world2frame(nodes.x(s), nodes.y(s), xy);
+        int sx = (int)xy[0], sy = (int)xy[1];
+        this._w2f.world2frame(nodes.x(d), nodes.y(d), xy);
+        g.drawLine(sx, sy, (int)xy[0], (int)xy[1]);
         //	g.drawString(""+n.getKey(), fp.ix(), fp.iy()-4*r);
     }
 
@@ -154,25 +282,24 @@ public class gamePanel extends JPanel {
      * Draws all the pokemons on the window.
      *
      * @param g
+     * @param pokemons represents the pokemons of the snapshot being painted.
      */
-    private void drawPokemons(Graphics g) {
-        List<CL_Pokemon> pokemons = arena.getPokemons();
+    private void drawPokemons(Graphics g, List<CL_Pokemon> pokemons) {
         if(pokemons!=null) {
             Iterator<CL_Pokemon> it = pokemons.iterator();
             while(it.hasNext()) {
                 CL_Pokemon pok = it.next();
                 geo_location c = pok.getPos();
-                int r = 10;
-                g.setColor(new Color(246, 243, 243, 255));
+                int r = POKEMON_R;
+                g.setColor(POKEMON_TEXT);
                 if(pok.getType() < 0) {
                     g.setColor(Color.red);
                 }
                 if(c!=null) {
-                    geo_location ge = this._w2f.world2frame(c);
-                    ImageIcon poky = new ImageIcon("./resources/Pokemon.png");
-                    g.drawImage(poky.getImage(), (int)ge.x()-r-5, (int)ge.y()-r-5, 3*r, 3*r, null);
-//                    g.fillOval((int)ge.x()-r, (int)ge.y()-r, 2*r, 2*r);
-                    g.drawString(""+pok.getValue(), (int)ge.x()-r+1, (int)ge.y()-r-3);
+                    world2frame(c);
+                    g.drawImage(images.sprite(POKEMON, 3*r, 3*r), (int)xy[0]-r-5, (int)xy[1]-r-5, null);
+//                    g.fillOval((int)xy[0]-r, (int)xy[1]-r, 2*r, 2*r);
+                    g.drawString(""+pok.getValue(), (int)xy[0]-r+1, (int)xy[1]-r-3);
                 }
             }
         }
@@ -182,45 +309,50 @@ public class gamePanel extends JPanel {
      * Draws all the agents on the window.
      *
      * @param g
+     * @param agents represents the agents of the snapshot being painted.
      */
-    private void drawAgents(Graphics g) {
-        List<CL_Agent> agents = arena.getAgents();
+    private void drawAgents(Graphics g, List<CL_Agent> agents) {
         g.setColor(Color.DARK_GRAY);
         int i = 0;
         while(agents != null && i < agents.size()) {
             geo_location c = agents.get(i).getPos();
-            int r=8;
+            int r=AGENT_R;
             i++;
             if(c!=null) {
-                geo_location ge = this._w2f.world2frame(c);
-                ImageIcon poky = new ImageIcon("./resources/Agent.png");
-                g.drawImage(poky.getImage(), (int)ge.x()-2*r, (int)ge.y()-4*r, 5*r, 6*r, null);
-//                g.fillOval((int)ge.x()-r, (int)ge.y()-r, 2*r, 2*r);
-//                g.drawString(""+agents.get(i).getValue(), (int)ge.x(), (int)ge.y()-2*r);
+                world2frame(c);
+                g.drawImage(images.sprite(AGENT, 5*r, 6*r), (int)xy[0]-2*r, (int)xy[1]-4*r, null);
+//                g.fillOval((int)xy[0]-r, (int)xy[1]-r, 2*r, 2*r);
+//                g.drawString(""+agents.get(i).getValue(), (int)xy[0], (int)xy[1]-2*r);
             }
         }
     }
 
+    /**
+     * Converts the given world position to its position on the window, into xy (no allocation).
+     *
+     * @param p represents the given world position.
+     */
+    private void world2frame(geo_location p) {
+        this._w2f.world2frame(p.x(), p.y(), xy);
+    }
+
     /**
      * Draws information about the game on the window - level, time to end, score and moves.
+     *
+     * @param snapshot represents the snapshot being painted.
      */
-    private void Info(){
+    private void Info(ArenaSnapshot snapshot){
 
-        level.setText("level: "+arena.getLevel());
-        level.setFont(new Font(Font.SERIF, Font.PLAIN,  20));
+        level.setText("level: "+snapshot.getLevel());
         level.setBounds(w-3*WP, 2, 200, 50);
 
-        time.setText("time: "+(arena.gatGame().timeToEnd()/1000));
-        time.setFont(new Font(Font.SERIF, Font.PLAIN,  20));
+        time.setText("time: "+(snapshot.getTimeToEnd()/1000));
         time.setBounds(w-2*WP, 2, 200, 50);
 
-//        int grade = jsonToObject.score(arena.gatGame().toString());
-        score.setFont(new Font(Font.SERIF, Font.PLAIN,  20));
+        score.setText("score: "+snapshot.getScore());
         score.setBounds(WP-5, 2, 200, 50);
 
-        int moving = jsonToObject.moves(arena.gatGame().toString());
-        moves.setText("moves: "+moving);
-        moves.setFont(new Font(Font.SERIF, Font.PLAIN,  20));
+        moves.setText("moves: "+snapshot.getMoves());
         moves.setBounds(2*WP, 2, 200, 50);
     }
 }
@@ -0,0 +1,343 @@
+package api;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class represents a directed weighted graph which may be changed and read by many threads at the same time -
+ * e.g. a thread which adds and removes edges by a live feed while planners read the graph.
+ * The reads take no locks: the nodes and the edges are kept in ConcurrentHashMaps, and iterating over getV()
+ * or getE() is weakly consistent (it sees the graph at some point during the iteration, and never throws
+ * ConcurrentModificationException). The changes lock only the stripes of the nodes they touch -
+ * connect() and removeEdge() lock the stripes of src and dest (by the order of the stripes, so they never deadlock),
+ * removeNode() locks the stripe of the node, which keeps all the edges of the node from being changed while
+ * it removes them. The counters are atomic.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class ConcurrentDWGraph implements directed_weighted_graph {
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<Integer, node_data> nodes;
+    private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, edge_data>> out;
+    private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, edge_data>> in;
+    private final ReentrantLock[] locks;
+    private final AtomicInteger nodeSize;
+    private final AtomicInteger edgeSize;
+    private final AtomicInteger MC;
+    private final AtomicInteger ID;
+
+    /**
+     * Default constructor.
+     */
+    public ConcurrentDWGraph() {
+        this.nodes = new ConcurrentHashMap<>();
+        this.out = new ConcurrentHashMap<>();
+        this.in = new ConcurrentHashMap<>();
+        this.locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.nodeSize = new AtomicInteger();
+        this.edgeSize = new AtomicInteger();
+        this.MC = new AtomicInteger();
+        this.ID = new AtomicInteger();
+    }
+
+    /**
+     * Copy constructor - Performs a deep copy of a given graph.
+     *
+     * @param graph represents the given graph.
+     */
+    public ConcurrentDWGraph(directed_weighted_graph graph) {
+        this();
+        for (node_data n : graph.getV()) {
+            addNode(new NodeData(n));
+        }
+        for (node_data n : graph.getV()) {
+            Collection<edge_data> edges = graph.getE(n.getKey());
+            if (edges == null) {
+                continue;
+            }
+            for (edge_data e : edges) {
+                connect(e.getSrc(), e.getDest(), e.getWeight());
+                edge_data copy = getEdge(e.getSrc(), e.getDest());
+                copy.setInfo(e.getInfo());
+                copy.setTag(e.getTag());
+            }
+        }
+    }
+
+    @Override
+    public node_data getNode(int key) {
+        return nodes.get(key);
+    }
+
+    @Override
+    public edge_data getEdge(int src, int dest) {
+        Map<Integer, edge_data> edges = out.get(src);
+        return edges == null ? null : edges.get(dest);
+    }
+
+    /**
+     * Adds a new node to the graph with a given node_data.
+     * A NodeData without a key (-1) gets the next free key.
+     *
+     * @param n represents the given new node for adding to the graph.
+     */
+    @Override
+    public void addNode(node_data n) {
+        if (n instanceof NodeData && n.getKey() == -1) {
+            ((NodeData) n).setKey(ID.getAndIncrement());
+        }
+        int key = n.getKey();
+        ID.accumulateAndGet(key + 1, Math::max);
+        ReentrantLock lock = lock(key);
+        lock.lock();
+        try {
+            if (nodes.putIfAbsent(key, n) == null) {
+                out.put(key, new ConcurrentHashMap<>());
+                in.put(key, new ConcurrentHashMap<>());
+                nodeSize.incrementAndGet();
+                MC.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Connects an edge with weight w between node src to node dest, an existing edge is not changed.
+     *
+     * @param src represents the key of the source node of the edge.
+     * @param dest represents the key of the destination node of the edge.
+     * @param w - positive weight representing the cost (aka time, price, etc) between src-->dest.
+     */
+    @Override
+    public void connect(int src, int dest, double w) {
+        if (src == dest || w < 0) {
+            return;
+        }
+        ReentrantLock first = locks[Math.min(stripe(src), stripe(dest))];
+        ReentrantLock second = locks[Math.max(stripe(src), stripe(dest))]; // May be first, the locks are reentrant.
+        first.lock();
+        second.lock();
+        try {
+            if (!nodes.containsKey(src) || !nodes.containsKey(dest)) {
+                return;
+            }
+            edge_data e = new EdgeData(src, dest, w);
+            if (out.get(src).putIfAbsent(dest, e) == null) {
+                in.get(dest).put(src, e);
+                edgeSize.incrementAndGet();
+                MC.incrementAndGet();
+            }
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    /**
+     * Returns a weakly consistent view of all the nodes in the graph.
+     *
+     * @return Collection<node_data>
+     */
+    @Override
+    public Collection<node_data> getV() {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    /**
+     * Returns a weakly consistent view of the edges getting out of the given node.
+     *
+     * @param node_id represents the key of the given node.
+     * @return Collection<edge_data>, null if there is no such node.
+     */
+    @Override
+    public Collection<edge_data> getE(int node_id) {
+        Map<Integer, edge_data> edges = out.get(node_id);
+        return edges == null ? null : Collections.unmodifiableCollection(edges.values());
+    }
+
+    /**
+     * Deletes the node (with the given ID) from the graph
+     * and removes all edges which starts or ends at this node.
+     *
+     * @param key represents the key of the node which should be deleted.
+     * @return the data of the removed node (null if none).
+     */
+    @Override
+    public node_data removeNode(int key) {
+        ReentrantLock lock = lock(key);
+        lock.lock();
+        try {
+            node_data n = nodes.remove(key);
+            if (n == null) {
+                return null;
+            }
+            // An edge is counted by the thread which removes it from the out map of its source,
+            // so an edge between two nodes which are removed at the same time is counted once.
+            int removed = 0;
+            Map<Integer, edge_data> from = out.get(key);
+            for (Integer dest : from.keySet()) {
+                if (from.remove(dest) != null) {
+                    removed++;
+                    Map<Integer, edge_data> to = in.get(dest);
+                    if (to != null) {
+                        to.remove(key);
+                    }
+                }
+            }
+            for (Integer src : in.get(key).keySet()) {
+                Map<Integer, edge_data> edges = out.get(src);
+                if (edges != null && edges.remove(key) != null) {
+                    removed++;
+                }
+            }
+            out.remove(key);
+            in.remove(key);
+            edgeSize.addAndGet(-removed);
+            nodeSize.decrementAndGet();
+            MC.addAndGet(removed + 1);
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes from the graph the directed edge between src to dest.
+     *
+     * @param src represents the key of the source node of the edge.
+     * @param dest represents the key of the destination node of the edge.
+     * @return the data of the removed edge (null if none).
+     */
+    @Override
+    public edge_data removeEdge(int src, int dest) {
+        if (src == dest) {
+            return null;
+        }
+        ReentrantLock first = locks[Math.min(stripe(src), stripe(dest))];
+        ReentrantLock second = locks[Math.max(stripe(src), stripe(dest))]; // May be first, the locks are reentrant.
+        first.lock();
+        second.lock();
+        try {
+            Map<Integer, edge_data> edges = out.get(src);
+            edge_data e = edges == null ? null : edges.remove(dest);
+            if (e != null) {
+                in.get(dest).remove(src);
+                edgeSize.decrementAndGet();
+                MC.incrementAndGet();
+            }
+            return e;
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    @Override
+    public int nodeSize() {
+        return nodeSize.get();
+    }
+
+    @Override
+    public int edgeSize() {
+        return edgeSize.get();
+    }
+
+    @Override
+    public int getMC() {
+        return MC.get();
+    }
+
+    /**
+     * ToString method.
+     *
+     * @return String which represents the nodes of this graph by their keys and the edges out of each one of them.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Map.Entry<Integer, ConcurrentHashMap<Integer, edge_data>> n : out.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(" , ");
+            }
+            sb.append('(').append(n.getKey()).append(": {");
+            boolean first = true;
+            for (edge_data e : n.getValue().values()) {
+                sb.append(first ? "" : ", ").append(e.getDest()).append("- weight = ").append(e.getWeight());
+                first = false;
+            }
+            sb.append("})");
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Equals method - like DWGraph_DS, equal to every graph with the same nodes and edges.
+     * Meaningful only while the graph is not changed.
+     *
+     * @param o represents a given object.
+     * @return true if this graph and the given object are equal, false if not.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof directed_weighted_graph))
+            return false;
+        directed_weighted_graph that = (directed_weighted_graph) o;
+        if (nodeSize() != that.nodeSize() || edgeSize() != that.edgeSize())
+            return false;
+        for (node_data ng : that.getV()) {
+            node_data nt = nodes.get(ng.getKey());
+            if (nt == null || !nt.equals(ng))
+                return false;
+            Collection<edge_data> thatE = that.getE(ng.getKey());
+            Map<Integer, edge_data> thisE = out.get(ng.getKey());
+            if ((thatE == null ? 0 : thatE.size()) != (thisE == null ? 0 : thisE.size()))
+                return false;
+            if (thatE == null)
+                continue;
+            for (edge_data e : thatE) {
+                edge_data et = thisE.get(e.getDest());
+                if (et == null || !e.equals(et))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * HashCode method - like DWGraph_DS, equal graphs have the same number of nodes and edges.
+     *
+     * @return the hash code of this graph.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeSize(), edgeSize());
+    }
+
+    /**
+     * Returns the index of the stripe of the given key.
+     */
+    private static int stripe(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Returns the lock of the stripe of the given key.
+     */
+    private ReentrantLock lock(int key) {
+        return locks[stripe(key)];
+    }
+}
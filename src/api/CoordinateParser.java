@@ -0,0 +1,139 @@
+package api;
+
+/**
+ * This class parses the numbers of the "x,y,z" positions of the server straight from the String,
+ * without splitting it and without allocating.
+ * A number like the server writes ([-]digits[.digits][e[-]digits], up to 18 significant digits) whose digits fit
+ * in 53 bits is parsed exactly by the fast path of Clinger: the digits as a long, multiplied or divided
+ * by an exact power of ten - one rounding, so the result is the correctly rounded double, like Double.parseDouble().
+ * Every other number (more digits, big exponents, spaces, "NaN", hex...) is parsed by Double.parseDouble().
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public final class CoordinateParser {
+
+    private static final long MAX_EXACT = 1L << 53;
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private CoordinateParser() {
+    }
+
+    /**
+     * Returns the double value of the characters of s from the index from (inclusive) to the index to (exclusive).
+     *
+     * @param s represents the given characters.
+     * @param from represents the index of the first character of the number.
+     * @param to represents the index after the last character of the number.
+     * @return the value of the number.
+     * @throws NumberFormatException if the characters are not a number.
+     */
+    public static double parseDouble(CharSequence s, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long digits = 0;
+        int significant = 0;
+        int exp10 = 0;
+        boolean any = false;
+        for (; i < to && isDigit(s.charAt(i)); i++) {
+            any = true;
+            if (significant > 0 || s.charAt(i) != '0') {
+                if (++significant > 18) {
+                    return slow(s, from, to);
+                }
+                digits = digits * 10 + (s.charAt(i) - '0');
+            }
+        }
+        if (i < to && s.charAt(i) == '.') {
+            for (i++; i < to && isDigit(s.charAt(i)); i++) {
+                any = true;
+                if (significant > 0 || s.charAt(i) != '0') {
+                    if (++significant > 18) {
+                        return slow(s, from, to);
+                    }
+                    digits = digits * 10 + (s.charAt(i) - '0');
+                }
+                exp10--;
+            }
+        }
+        if (!any) {
+            return slow(s, from, to);
+        }
+        if (i < to && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                negativeExp = s.charAt(i) == '-';
+                i++;
+            }
+            if (i == to) {
+                return slow(s, from, to);
+            }
+            int exp = 0;
+            for (; i < to && isDigit(s.charAt(i)); i++) {
+                if (exp > 1000) {
+                    return slow(s, from, to);
+                }
+                exp = exp * 10 + (s.charAt(i) - '0');
+            }
+            exp10 += negativeExp ? -exp : exp;
+        }
+        if (i != to) {
+            return slow(s, from, to);
+        }
+        if (digits == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (digits > MAX_EXACT) {
+            return slow(s, from, to);
+        }
+        double value;
+        if (exp10 >= 0 && exp10 <= 22) {
+            value = digits * POW10[exp10];
+        } else if (exp10 < 0 && exp10 >= -22) {
+            value = digits / POW10[-exp10];
+        } else if (exp10 > 22 && exp10 <= 22 + 15) {
+            // The digits may take the extra powers of ten and still be exact (e.g. 1e30 = 10^8 * 10^22).
+            for (; exp10 > 22; exp10--) {
+                digits *= 10;
+                if (digits > MAX_EXACT) {
+                    return slow(s, from, to);
+                }
+            }
+            value = digits * POW10[22];
+        } else {
+            return slow(s, from, to);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the index of the comma which ends the number which starts at the given index, or the length of s.
+     *
+     * @param s represents the given String.
+     * @param from represents the index of the first character of the number.
+     * @return the index after the last character of the number.
+     */
+    public static int end(String s, int from) {
+        int i = s.indexOf(',', from);
+        return i < 0 ? s.length() : i;
+    }
+
+    /**
+     * Returns true iff the given char is a decimal digit.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Parses by Double.parseDouble() - allocates the substring.
+     */
+    private static double slow(CharSequence s, int from, int to) {
+        return Double.parseDouble(s.subSequence(from, to).toString());
+    }
+}
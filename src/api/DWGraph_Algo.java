@@ -1,10 +1,29 @@
 package api;
 
-import com.google.gson.*;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This class represents a Directed (positive) Weighted Graph Theory Algorithms including:
@@ -21,6 +40,8 @@ import java.util.*;
  */
 public class DWGraph_Algo implements dw_graph_algorithms {
 
+   private static final int BUFFER = 1 << 16;
+
    private directed_weighted_graph g = new DWGraph_DS();
 
    /**
@@ -216,23 +237,52 @@ public class DWGraph_Algo implements dw_graph_algorithms {
 
    /**
     * Saves this directed weighted graph to the given
-    * file name - in JSON format.
+    * file name - in JSON format (see GraphJson), compressed by gzip if the name ends with ".gz".
+    * The JSON is streamed to a temporary file in the same directory, which then replaces the given file,
+    * so the given file is never left half written.
     *
     * @param file represents the file name (may include a relative path).
     * @return true iff the file was successfully saved.
     */
    @Override
    public boolean save(String file) {
-      Gson gson = new Gson();
-      String jsonG = gson.toJson(g);
-      System.out.println(jsonG);
+      if (file == null || file.isEmpty())
+         return false;
+      Path target;
+      try {
+         target = Paths.get(file).toAbsolutePath();
+      } catch (InvalidPathException e) {
+         return false;
+      }
+      if (Files.isDirectory(target))
+         return false;
+      Path tmp = null;
       try {
-         FileWriter saveGraph = new FileWriter(file);
-         saveGraph.write(jsonG);
-         saveGraph.close();
+         // Not Files.createTempFile() - the saved file should get the default permissions, like a new file.
+         Path name = target.resolveSibling(target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+         try (FileChannel ch = FileChannel.open(name, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+            tmp = name;
+            OutputStream os = Channels.newOutputStream(ch);
+            GZIPOutputStream gz = file.endsWith(".gz") ? new GZIPOutputStream(os, BUFFER) : null;
+            Writer w = new BufferedWriter(new OutputStreamWriter(gz == null ? os : gz, StandardCharsets.UTF_8), BUFFER);
+            GraphJson.write(g, w);
+            w.flush();
+            if (gz != null)
+               gz.finish();
+            ch.force(false);
+         }
+         Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
          return true;
-      } catch (Exception e) {
+      } catch (IOException | JsonIOException e) {
          return false;
+      } finally {
+         if (tmp != null) {
+            try {
+               Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+               // Nothing to do, the file was not saved anyway.
+            }
+         }
       }
    }
 
@@ -241,78 +291,22 @@ public class DWGraph_Algo implements dw_graph_algorithms {
     * If the file was successfully loaded - the underlying graph
     * of this class will be changed (to the loaded one), in case the
     * graph was not loaded the original graph should remain "as is".
+    * A file compressed by gzip (see save()) is decompressed.
     *
     * @param file represents the file name of JSON file.
     * @return true iff the graph was successfully loaded.
     */
    @Override
    public boolean load(String file) {
-      try {
-         Gson gson = new Gson();
-         FileReader lodeGraph = new FileReader(file);
-         JsonObject jsonOb = gson.fromJson(lodeGraph, JsonObject.class);
-         initFromJson(jsonOb);
+      try (InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER)) {
+         in.mark(2);
+         boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+         in.reset();
+         Reader r = new InputStreamReader(gzip ? new GZIPInputStream(in, BUFFER) : in, StandardCharsets.UTF_8);
+         this.g = GraphJson.read(r);
          return true;
-      } catch (FileNotFoundException e) {
+      } catch (IOException | JsonParseException e) {
          return false;
       }
    }
-
-   /**
-    * This method loads the graph from the jsonObject.
-    *
-    * @param json represents the given jsonObject which represents a directed weighted graph.
-    */
-   private void initFromJson(JsonObject json){
-      directed_weighted_graph newGraph = new DWGraph_DS();
-      loadNodes(json, newGraph);
-      loadEdges(json, newGraph);
-      this.g = newGraph;
-   }
-
-   /**
-    * This method loads the nodes of the graph from the jsonObject.
-    *
-    * @param json represents the given jsonObject which represents a directed weighted graph.
-    * @param newGraph represents the graph which the nodes are loaded to it.
-    */
-   private void loadNodes(JsonObject json, directed_weighted_graph newGraph){
-      JsonObject jsonNodes = json.get("nodes").getAsJsonObject();
-      for (Map.Entry<String, JsonElement> node : jsonNodes.entrySet()){
-         int hashKey = Integer.parseInt(node.getKey()); //the key of the hashmap
-         JsonObject jsonN = node.getValue().getAsJsonObject();
-         double nodeWeight = jsonN.get("nodeWeight").getAsDouble();
-         node_data n = new NodeData(hashKey);
-         n.setWeight(nodeWeight);
-         if(jsonN.get("nodeGeoLocation") != null){
-            JsonObject jsonLocation = jsonN.get("nodeGeoLocation").getAsJsonObject();
-            int x = jsonLocation.get("x").getAsInt();
-            int y = jsonLocation.get("y").getAsInt();
-            int z = jsonLocation.get("z").getAsInt();
-            geo_location pos  = new GeoLocation(x, y, z);
-            n.setLocation(pos);
-         }
-         newGraph.addNode(n);
-      }
-   }
-
-   /**
-    * This method loads the edges of the graph from the jsonObject.
-    *
-    * @param json represents the given jsonObject which represents a directed weighted graph.
-    * @param newGraph represents the graph which the edges are loaded to it.
-    */
-   private void loadEdges(JsonObject json, directed_weighted_graph newGraph){
-      JsonObject jsonEdges = json.get("edges").getAsJsonObject();
-      for (Map.Entry<String, JsonElement> setHashEdges : jsonEdges.entrySet()) {
-         int src = Integer.parseInt(setHashEdges.getKey()); //the key of the hashmap
-         JsonObject jsonEdgeByNode = setHashEdges.getValue().getAsJsonObject();
-         for (Map.Entry<String, JsonElement> edge : jsonEdgeByNode.entrySet()) {
-            JsonObject jsonE = edge.getValue().getAsJsonObject();
-            int dest = jsonE.get("dest").getAsInt();
-            double w = jsonE.get("edgeWeight").getAsDouble();
-            newGraph.connect(src, dest, w);
-         }
-      }
-   }
-}
\ No newline at end of file
+}
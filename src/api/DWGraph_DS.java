@@ -1,10 +1,19 @@
 package api;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * This class represents a directed weighted graph.
+ * The changes of the graph are reported to its graph_listeners (see addListener()) - one by one,
+ * or together at the end of a batch (see beginBatch()). Without listeners nothing is recorded.
  *
  * @authors Liel.Vaknin & Renana.Levy.
  */
@@ -19,6 +28,12 @@ public class DWGraph_DS implements directed_weighted_graph{
 
     private int ID;
 
+    // The listeners and the events of the current batch are not part of the graph (not copied or saved).
+    private transient ArrayList<graph_listener> listeners; // null while there are no listeners.
+    private transient ArrayList<GraphEvent> batch;
+    private transient HashMap<Long, Integer> removedInBatch; // An edge removed in the batch --> the index of its event.
+    private transient int batchDepth;
+
     /**
      * Default constructor.
      */
@@ -32,10 +47,15 @@ public class DWGraph_DS implements directed_weighted_graph{
 
     /**
      * Copy constructor - Performs a deep copy of a given graph.
+     * A DWGraph_DS is copied directly from its maps, into maps which are created in their final size.
      *
      * @param graph represents the given graph.
      */
     public DWGraph_DS(directed_weighted_graph graph) {
+        if(graph instanceof DWGraph_DS) {
+            copy((DWGraph_DS) graph);
+            return;
+        }
         this.nodes = new HashMap<>();
         this.edges = new HashMap<>();
         if(graph == null)
@@ -57,6 +77,42 @@ public class DWGraph_DS implements directed_weighted_graph{
         }
         this.nodeSize = graph.nodeSize();
         this.edgeSize = graph.edgeSize();
+        for (int key : this.nodes.keySet()) {
+            if (key >= ID)
+                ID = key + 1;
+        }
+    }
+
+    /**
+     * Copies the given graph - the nodes and the edges are copied (their locations are immutable and shared),
+     * the MC of the copy is the number of its nodes and edges, like a graph built by addNode() and connect().
+     *
+     * @param graph represents the given graph.
+     */
+    private void copy(DWGraph_DS graph) {
+        this.nodes = new HashMap<>(capacity(graph.nodes.size()));
+        this.edges = new HashMap<>(capacity(graph.edges.size()));
+        for (node_data n : graph.nodes.values()) {
+            this.nodes.put(n.getKey(), new NodeData(n));
+        }
+        for (Map.Entry<Integer, HashMap<Integer, edge_data>> out : graph.edges.entrySet()) {
+            HashMap<Integer, edge_data> newEdges = new HashMap<>(capacity(out.getValue().size()));
+            for (edge_data e : out.getValue().values()) {
+                newEdges.put(e.getDest(), new EdgeData(e));
+            }
+            this.edges.put(out.getKey(), newEdges);
+        }
+        this.nodeSize = graph.nodeSize;
+        this.edgeSize = graph.edgeSize;
+        this.MC = graph.nodeSize + graph.edgeSize;
+        this.ID = graph.ID;
+    }
+
+    /**
+     * Returns the initial capacity of a HashMap which holds the given number of entries without resizing.
+     */
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
     }
 
     /**
@@ -77,7 +133,7 @@ public class DWGraph_DS implements directed_weighted_graph{
      */
     @Override
     public edge_data getEdge(int src, int dest){
-        if (!this.nodes.containsKey(src) || !this.nodes.containsKey(dest) || src == dest)
+        if (!this.nodes.containsKey(src) || !this.nodes.containsKey(dest) || src == dest || !this.edges.containsKey(src))
             return null;
         return this.edges.get(src).get(dest);
     }
@@ -92,9 +148,11 @@ public class DWGraph_DS implements directed_weighted_graph{
         ((NodeData)n).setKey(ID);
         if (!this.nodes.containsKey(n.getKey())) {
             this.nodes.put(n.getKey(), n);
-            ID++;
+            ID = Math.max(ID + 1, n.getKey() + 1); // A node with a given key (e.g. a loaded node) may be above ID.
             MC++;
             nodeSize++;
+            if (listeners != null)
+                fire(GraphEvent.Type.NODE_ADDED, n.getKey(), -1, 0, 0);
         }
     }
 
@@ -118,6 +176,8 @@ public class DWGraph_DS implements directed_weighted_graph{
             this.edges.get(src).put(dest, newEdge);
             edgeSize++;
             MC++;
+            if (listeners != null)
+                fire(GraphEvent.Type.EDGE_ADDED, src, dest, w, 0);
         }
     }
 
@@ -157,6 +217,7 @@ public class DWGraph_DS implements directed_weighted_graph{
     public node_data removeNode(int key) {
         if (!this.nodes.containsKey(key))
             return null;
+        beginBatch();
         for (node_data n : this.getV()) {
             if(!this.edges.containsKey(n.getKey())){
                 continue;
@@ -165,11 +226,21 @@ public class DWGraph_DS implements directed_weighted_graph{
                 this.removeEdge(n.getKey(), key);
             }
         }
-        edgeSize = edgeSize - this.edges.get(key).size();
+        if (this.edges.containsKey(key)) {
+            edgeSize = edgeSize - this.edges.get(key).size();
+            if (listeners != null) {
+                for (edge_data e : this.edges.get(key).values())
+                    fire(GraphEvent.Type.EDGE_REMOVED, key, e.getDest(), e.getWeight(), 0);
+            }
+        }
         this.edges.remove(key);
         nodeSize--;
         MC++;
-        return this.nodes.remove(key);
+        node_data ans = this.nodes.remove(key);
+        if (listeners != null)
+            fire(GraphEvent.Type.NODE_REMOVED, key, -1, 0, 0);
+        endBatch();
+        return ans;
     }
 
     /**
@@ -181,13 +252,15 @@ public class DWGraph_DS implements directed_weighted_graph{
      */
     @Override
     public edge_data removeEdge(int src, int dest){
-        if (!this.nodes.containsKey(src) || !this.nodes.containsKey(dest) || src == dest)
+        if (!this.nodes.containsKey(src) || !this.nodes.containsKey(dest) || src == dest || !this.edges.containsKey(src))
             return null;
         if (this.edges.get(src).containsKey(dest)) {
             edge_data edge = edges.get(src).get(dest);
             this.edges.get(src).remove(dest);
             edgeSize--;
             MC++;
+            if (listeners != null)
+                fire(GraphEvent.Type.EDGE_REMOVED, src, dest, edge.getWeight(), 0);
             return edge;
         }
         else
@@ -218,6 +291,103 @@ public class DWGraph_DS implements directed_weighted_graph{
     @Override
     public int getMC(){return this.MC;}
 
+    /**
+     * Registers the given listener - it is called after every change of the graph (or at the end of a batch).
+     * A listener should not change the graph while it is called.
+     *
+     * @param l represents the given listener.
+     */
+    public void addListener(graph_listener l){
+        if (listeners == null)
+            listeners = new ArrayList<>();
+        listeners.add(l);
+    }
+
+    /**
+     * Removes the given listener.
+     *
+     * @param l represents the given listener.
+     */
+    public void removeListener(graph_listener l){
+        if (listeners != null && listeners.remove(l) && listeners.isEmpty())
+            listeners = null;
+    }
+
+    /**
+     * Begins a batch of changes - the changes are reported together by the endBatch() which closes it.
+     * Batches may be nested, the changes are reported when the outermost batch ends.
+     */
+    public void beginBatch(){
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch of changes and reports them to the listeners (if it is the outermost batch).
+     * An edge which was removed and then connected again in the batch is reported once as EDGE_REWEIGHTED,
+     * or not at all if its weight was not changed (so the listeners may get an empty list - the MC was changed) -
+     * unless one of its nodes was removed in between, then both events are reported, by their order.
+     *
+     * @throws IllegalStateException if there is no batch to end.
+     */
+    public void endBatch(){
+        if (batchDepth == 0)
+            throw new IllegalStateException("endBatch() without beginBatch()");
+        batchDepth--;
+        if (batchDepth > 0 || batch == null)
+            return;
+        ArrayList<GraphEvent> events = new ArrayList<>(batch.size());
+        for (GraphEvent e : batch) {
+            if (e != null)
+                events.add(e);
+        }
+        batch = null;
+        removedInBatch = null;
+        if (listeners != null)
+            dispatch(events);
+    }
+
+    /**
+     * Reports a change to the listeners, or records it in the current batch.
+     */
+    private void fire(GraphEvent.Type type, int src, int dest, double w, double oldW){
+        GraphEvent event = new GraphEvent(type, src, dest, w, oldW, MC);
+        if (batchDepth == 0) {
+            dispatch(Collections.singletonList(event));
+            return;
+        }
+        if (batch == null) {
+            batch = new ArrayList<>();
+            removedInBatch = new HashMap<>();
+        }
+        long pair = ((long) src << 32) | (dest & 0xffffffffL);
+        if (type == GraphEvent.Type.EDGE_REMOVED) {
+            removedInBatch.put(pair, batch.size());
+        } else if (type == GraphEvent.Type.EDGE_ADDED) {
+            Integer i = removedInBatch.remove(pair);
+            if (i != null) {
+                double old = batch.get(i).getWeight();
+                batch.set(i, null);
+                if (old == w)
+                    return;
+                event = new GraphEvent(GraphEvent.Type.EDGE_REWEIGHTED, src, dest, w, old, MC);
+            }
+        } else if (type == GraphEvent.Type.NODE_REMOVED) {
+            // An edge of the node which is connected again after the node is added again is a new edge,
+            // its EDGE_REMOVED stays before the NODE_REMOVED and its EDGE_ADDED comes after the NODE_ADDED.
+            removedInBatch.keySet().removeIf(p -> (int) (p >> 32) == src || (int) (long) p == src);
+        }
+        batch.add(event);
+    }
+
+    /**
+     * Calls the listeners with the given events.
+     */
+    private void dispatch(List<GraphEvent> events){
+        List<GraphEvent> view = Collections.unmodifiableList(events);
+        for (graph_listener l : listeners.toArray(new graph_listener[0]))
+            l.graphChanged(view);
+    }
+
     /**
      * ToString method.
      *
@@ -226,28 +396,24 @@ public class DWGraph_DS implements directed_weighted_graph{
      */
     @Override
     public String toString(){
-        String g = "[";
-        int siN = 0;
-        for(int n: this.nodes.keySet()){
-            g = g+"("+n+": {";
-            int siE = 0;
-            for (edge_data e: getE(n)){
-                if(siE == getE(n).size()-1){
-                    g = g+e.getDest()+"- weight = "+e.getWeight()+"}";
-                }else {
-                    g = g+e.getDest()+"- weight = "+e.getWeight()+", ";
-                }
-                siE++;
-            }
-            g = g+")";
-            if(siN == this.nodes.keySet().size()-1){
-                g = g+"]";
-            } else {
-                g = g+" , ";
-            }
-            siN++;
+        StringBuilder sb = new StringBuilder(16 * nodeSize + 24 * edgeSize + 2);
+        try {
+            writeTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringBuilder never throws.
         }
-        return g;
+        return sb.toString();
+    }
+
+    /**
+     * Writes this graph, in the format of toString(), to the given Appendable - node by node,
+     * so a big graph can be written to a file without building the whole String (see GraphWriter for more formats).
+     *
+     * @param out represents the given Appendable.
+     * @throws IOException if out could not be written.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        GraphWriter.writeText(this, out);
     }
 
     /**
@@ -267,22 +433,34 @@ public class DWGraph_DS implements directed_weighted_graph{
             return false;
         for(node_data ng: that.getV()) {
             int keyG = ng.getKey();
-            if(this.nodes.containsKey(keyG)) {
-                node_data nt = this.getNode(keyG);
-                if((!(nt).equals(ng)))
+            node_data nt = this.nodes.get(keyG);
+            if(nt == null || !nt.equals(ng))
+                return false;
+            Collection<edge_data> thatE = that.getE(keyG);
+            HashMap<Integer, edge_data> thisE = this.edges.get(keyG);
+            int thatDegree = thatE == null ? 0 : thatE.size();
+            int thisDegree = thisE == null ? 0 : thisE.size();
+            if(thatDegree != thisDegree)
+                return false;
+            if(thatE == null)
+                continue;
+            for (edge_data e: thatE){
+                edge_data et = thisE.get(e.getDest());
+                if(et == null || !e.equals(et))
                     return false;
-                else {
-                    for (edge_data e: that.getE(keyG)){
-                        Collection<edge_data> thisE = this.getE(keyG);
-                        if(!thisE.contains(e))
-                            return false;
-                    }
-                }
             }
-            else
-                return false;
         }
         return true;
     }
+
+    /**
+     * HashCode method - equal graphs have the same number of nodes and edges.
+     *
+     * @return the hash code of this graph.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeSize, edgeSize);
+    }
 }
 
@@ -0,0 +1,414 @@
+package api;
+
+import java.util.*;
+
+/**
+ * This class keeps the shortest paths from a single source to all the nodes of a graph while the graph changes,
+ * repairing only the part of the shortest paths tree which is affected by a change (like Ramalingam & Reps):
+ * - a new (or cheaper) edge u-->v which improves v continues Dijkstra's algorithm from v only.
+ * - removing (or raising the weight of) the tree edge to v invalidates the subtree of v, whose nodes get
+ *   their best distance through their in-edges from the rest of the tree, and Dijkstra's algorithm continues
+ *   from them. Changing an edge which is not in the tree changes nothing.
+ * The changes should be reported by edgeInserted(), edgeRemoved(), edgeReweighted(), nodeAdded() and nodeRemoved(),
+ * right after each one is made - or, for a DWGraph_DS, by registering this object as its listener right after
+ * it is constructed (see graphChanged()). If the MC of the graph changed without a report (or an edge report doesn't
+ * follow exactly one change of the graph), the paths are computed again from scratch.
+ * Keeps its own state (never writes to the nodes of the graph).
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class DynamicShortestPaths implements graph_listener {
+
+    private final directed_weighted_graph g;
+    private final int source;
+    private final HashMap<Integer, Double> dist;
+    private final HashMap<Integer, Integer> parent;
+    private final HashMap<Integer, Set<Integer>> children;
+    private final HashMap<Integer, Set<Integer>> in; // Keys of nodes which may have an edge to the key (checked in g).
+    private int MC;
+    private int recomputes;
+
+    /**
+     * Constructor - computes the shortest paths from the given source.
+     *
+     * @param g represents the graph.
+     * @param source represents the key of the source node.
+     */
+    public DynamicShortestPaths(directed_weighted_graph g, int source) {
+        this.g = g;
+        this.source = source;
+        this.dist = new HashMap<>();
+        this.parent = new HashMap<>();
+        this.children = new HashMap<>();
+        this.in = new HashMap<>();
+        recompute();
+    }
+
+    /**
+     * Returns the key of the source node.
+     *
+     * @return source.
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the number of times the paths were computed from scratch (including the first time).
+     *
+     * @return number of full computations.
+     */
+    public int getRecomputes() {
+        return recomputes;
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to the given node.
+     *
+     * @param dest represents the key of the given node.
+     * @return the length of the shortest path, -1 if there is no such path.
+     */
+    public double shortestPathDist(int dest) {
+        check();
+        Double d = dist.get(dest);
+        return d == null ? -1 : d;
+    }
+
+    /**
+     * Returns the shortest path from the source to the given node - as an ordered List of nodes.
+     *
+     * @param dest represents the key of the given node.
+     * @return the shortest path, null if there is no such path.
+     */
+    public List<node_data> shortestPath(int dest) {
+        check();
+        if (!dist.containsKey(dest)) {
+            return null;
+        }
+        LinkedList<node_data> path = new LinkedList<>();
+        for (Integer v = dest; v != null; v = parent.get(v)) {
+            path.addFirst(g.getNode(v));
+        }
+        return path;
+    }
+
+    /**
+     * Reports that the edge src-->dest was added to the graph.
+     *
+     * @param src represents the key of the source node of the edge.
+     * @param dest represents the key of the destination node of the edge.
+     */
+    public void edgeInserted(int src, int dest) {
+        if (synced(1)) {
+            in.computeIfAbsent(dest, k -> new HashSet<>()).add(src);
+            improve(src, dest);
+        }
+        MC = g.getMC();
+    }
+
+    /**
+     * Reports that the edge src-->dest was removed from the graph.
+     *
+     * @param src represents the key of the source node of the edge.
+     * @param dest represents the key of the destination node of the edge.
+     */
+    public void edgeRemoved(int src, int dest) {
+        if (synced(1)) {
+            Set<Integer> from = in.get(dest);
+            if (from != null) {
+                from.remove(src);
+            }
+            if (Objects.equals(parent.get(dest), src)) {
+                repair(Collections.singleton(dest));
+            }
+        }
+        MC = g.getMC();
+    }
+
+    /**
+     * Reports that the weight of the edge src-->dest was changed.
+     *
+     * @param src represents the key of the source node of the edge.
+     * @param dest represents the key of the destination node of the edge.
+     * @param oldWeight represents the weight of the edge before the change.
+     */
+    public void edgeReweighted(int src, int dest, double oldWeight) {
+        if (synced(1)) {
+            edge_data e = g.getEdge(src, dest);
+            if (e != null && e.getWeight() < oldWeight) {
+                improve(src, dest);
+            } else if (e != null && e.getWeight() > oldWeight && Objects.equals(parent.get(dest), src)) {
+                repair(Collections.singleton(dest));
+            }
+        }
+        MC = g.getMC();
+    }
+
+    /**
+     * Reports that the node with the given key was added to the graph (without edges).
+     *
+     * @param key represents the key of the node.
+     */
+    public void nodeAdded(int key) {
+        if (synced(-1) && key == source) {
+            recompute(); // The source was missing, nothing was reachable.
+        }
+        MC = g.getMC();
+    }
+
+    /**
+     * Reports that the node with the given key was removed from the graph, with all its edges.
+     *
+     * @param key represents the key of the node.
+     */
+    public void nodeRemoved(int key) {
+        if (synced(-1)) {
+            in.remove(key);
+            if (key == source) {
+                clear();
+            } else if (dist.containsKey(key)) {
+                repair(Collections.singleton(key));
+                dist.remove(key);
+                children.remove(key);
+            }
+        }
+        MC = g.getMC();
+    }
+
+    /**
+     * Handles the changes reported by a DWGraph_DS (see DWGraph_DS.addListener()) - all the subtrees which lost
+     * their tree edge (or node) are repaired together, and then the new and cheaper edges continue Dijkstra's algorithm,
+     * so a batch of changes costs one repair.
+     *
+     * @param events represents the changes, by the order they were made.
+     */
+    @Override
+    public void graphChanged(List<GraphEvent> events) {
+        HashSet<Integer> roots = new HashSet<>();
+        ArrayList<GraphEvent> better = new ArrayList<>();
+        boolean all = false;
+        for (GraphEvent e : events) {
+            switch (e.getType()) {
+                case EDGE_ADDED:
+                    in.computeIfAbsent(e.getDest(), k -> new HashSet<>()).add(e.getSrc());
+                    better.add(e);
+                    break;
+                case EDGE_REWEIGHTED:
+                    if (e.getWeight() < e.getOldWeight()) {
+                        better.add(e);
+                    } else if (Objects.equals(parent.get(e.getDest()), e.getSrc())) {
+                        roots.add(e.getDest());
+                    }
+                    break;
+                case EDGE_REMOVED: // The in-edges may be a superset, the edge may be connected again later.
+                    if (Objects.equals(parent.get(e.getDest()), e.getSrc())) {
+                        roots.add(e.getDest());
+                    }
+                    break;
+                case NODE_ADDED:
+                    all |= e.getSrc() == source;
+                    break;
+                case NODE_REMOVED:
+                    in.remove(e.getSrc());
+                    all |= e.getSrc() == source;
+                    if (dist.containsKey(e.getSrc())) {
+                        roots.add(e.getSrc());
+                    }
+                    break;
+            }
+        }
+        if (all) {
+            recompute();
+            return;
+        }
+        if (!roots.isEmpty()) {
+            repair(roots);
+            for (int v : roots) {
+                if (g.getNode(v) == null) {
+                    dist.remove(v);
+                    children.remove(v);
+                }
+            }
+        }
+        for (GraphEvent e : better) {
+            improve(e.getSrc(), e.getDest());
+        }
+        MC = g.getMC();
+    }
+
+    /**
+     * Computes the paths again if the graph was changed without a report.
+     */
+    private void check() {
+        if (g.getMC() != MC) {
+            recompute();
+        }
+    }
+
+    /**
+     * Checks that the graph was changed by the given number of changes since the last report,
+     * otherwise computes the paths again.
+     *
+     * @param changes represents the expected number of changes, -1 for any positive number.
+     * @return true if the report should be handled, false if the paths were computed again.
+     */
+    private boolean synced(int changes) {
+        int delta = g.getMC() - MC;
+        if (delta == changes || (changes == -1 && delta > 0)) {
+            return true;
+        }
+        recompute();
+        return false;
+    }
+
+    /**
+     * Computes the shortest paths from scratch, and the in-edges of every node.
+     */
+    private void recompute() {
+        clear();
+        in.clear();
+        for (node_data n : g.getV()) {
+            Collection<edge_data> out = g.getE(n.getKey());
+            if (out == null) {
+                continue;
+            }
+            for (edge_data e : out) {
+                in.computeIfAbsent(e.getDest(), k -> new HashSet<>()).add(e.getSrc());
+            }
+        }
+        if (g.getNode(source) != null) {
+            PriorityQueue<Step> q = new PriorityQueue<>();
+            q.add(new Step(source, 0, null));
+            dijkstra(q);
+        }
+        recomputes++;
+        MC = g.getMC();
+    }
+
+    /**
+     * Removes all the paths.
+     */
+    private void clear() {
+        dist.clear();
+        parent.clear();
+        children.clear();
+    }
+
+    /**
+     * Continues Dijkstra's algorithm from dest if the edge src-->dest shortens the path to it.
+     */
+    private void improve(int src, int dest) {
+        edge_data e = g.getEdge(src, dest);
+        Double d = dist.get(src);
+        if (e == null || d == null) {
+            return;
+        }
+        double path = d + e.getWeight();
+        Double old = dist.get(dest);
+        if (old == null || path < old) {
+            PriorityQueue<Step> q = new PriorityQueue<>();
+            q.add(new Step(dest, path, src));
+            dijkstra(q);
+        }
+    }
+
+    /**
+     * Invalidates the subtrees of the given nodes, and finds their new paths - first through an in-edge from
+     * a node outside the subtrees, then by Dijkstra's algorithm.
+     */
+    private void repair(Collection<Integer> roots) {
+        HashSet<Integer> affected = new HashSet<>();
+        ArrayDeque<Integer> stack = new ArrayDeque<>(roots);
+        while (!stack.isEmpty()) {
+            int v = stack.pop();
+            if (affected.add(v)) {
+                Set<Integer> c = children.get(v);
+                if (c != null) {
+                    stack.addAll(c);
+                }
+            }
+        }
+        for (int v : affected) {
+            setParent(v, null);
+            dist.remove(v);
+        }
+        PriorityQueue<Step> q = new PriorityQueue<>();
+        for (int v : affected) {
+            Set<Integer> from = in.get(v);
+            if (from == null) {
+                continue;
+            }
+            for (int u : from) {
+                Double d = dist.get(u);
+                edge_data e = g.getEdge(u, v);
+                if (d != null && e != null) {
+                    q.add(new Step(v, d + e.getWeight(), u));
+                }
+            }
+        }
+        dijkstra(q);
+    }
+
+    /**
+     * Dijkstra's algorithm from the steps in the given queue - a node is settled when a step gives it
+     * a shorter path than it has.
+     */
+    private void dijkstra(PriorityQueue<Step> q) {
+        while (!q.isEmpty()) {
+            Step s = q.poll();
+            Double old = dist.get(s.node);
+            if (old != null && old <= s.dist) {
+                continue;
+            }
+            dist.put(s.node, s.dist);
+            setParent(s.node, s.parent);
+            Collection<edge_data> out = g.getE(s.node);
+            if (out == null) {
+                continue;
+            }
+            for (edge_data e : out) {
+                double path = s.dist + e.getWeight();
+                Double d = dist.get(e.getDest());
+                if (d == null || path < d) {
+                    q.add(new Step(e.getDest(), path, s.node));
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the given node under the given parent in the tree (null for no parent).
+     */
+    private void setParent(int v, Integer p) {
+        Integer old = p == null ? parent.remove(v) : parent.put(v, p);
+        if (old != null) {
+            Set<Integer> c = children.get(old);
+            if (c != null) {
+                c.remove(v);
+            }
+        }
+        if (p != null) {
+            children.computeIfAbsent(p, k -> new HashSet<>()).add(v);
+        }
+    }
+
+    /**
+     * A node reached with a distance through a parent.
+     */
+    private static class Step implements Comparable<Step> {
+        private final int node;
+        private final double dist;
+        private final Integer parent;
+
+        private Step(int node, double dist, Integer parent) {
+            this.node = node;
+            this.dist = dist;
+            this.parent = parent;
+        }
+
+        @Override
+        public int compareTo(Step o) {
+            return Double.compare(dist, o.dist);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package api;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * This class represents a directed weighted graph which can't be changed -
+ * a read only view of a graph which is owned by this class (nobody else should keep a reference to it).
+ * All the methods which change the graph throw UnsupportedOperationException,
+ * and the collections of the nodes and of the edges can't be changed either.
+ * The nodes themselves are the nodes of the original graph, so DWGraph_Algo can still work on this graph,
+ * but it writes its own fields into the nodes - a graph shared by many threads should be searched
+ * with PathTable instead.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class FrozenDWGraph implements directed_weighted_graph {
+
+    private final directed_weighted_graph g;
+    private final Collection<node_data> nodes;
+    private final HashMap<Integer, Collection<edge_data>> edges;
+
+    /**
+     * Constructor - freezes the given graph.
+     *
+     * @param g represents the given graph, must not be changed afterwards.
+     */
+    public FrozenDWGraph(directed_weighted_graph g) {
+        this.g = g;
+        this.nodes = Collections.unmodifiableCollection(g.getV());
+        this.edges = new HashMap<>();
+        for (node_data n : g.getV()) {
+            Collection<edge_data> out = g.getE(n.getKey());
+            if (out != null) {
+                edges.put(n.getKey(), Collections.unmodifiableCollection(out));
+            }
+        }
+    }
+
+    @Override
+    public node_data getNode(int key) {
+        return g.getNode(key);
+    }
+
+    @Override
+    public edge_data getEdge(int src, int dest) {
+        return g.getEdge(src, dest);
+    }
+
+    /**
+     * Not supported - this graph can't be changed.
+     *
+     * @param n represents the given node.
+     */
+    @Override
+    public void addNode(node_data n) {
+        throw new UnsupportedOperationException("The graph is frozen");
+    }
+
+    /**
+     * Not supported - this graph can't be changed.
+     *
+     * @param src represents the key of the source node.
+     * @param dest represents the key of the destination node.
+     * @param w represents the weight of the edge.
+     */
+    @Override
+    public void connect(int src, int dest, double w) {
+        throw new UnsupportedOperationException("The graph is frozen");
+    }
+
+    @Override
+    public Collection<node_data> getV() {
+        return nodes;
+    }
+
+    @Override
+    public Collection<edge_data> getE(int node_id) {
+        return edges.get(node_id);
+    }
+
+    /**
+     * Not supported - this graph can't be changed.
+     *
+     * @param key represents the key of the node.
+     * @return nothing.
+     */
+    @Override
+    public node_data removeNode(int key) {
+        throw new UnsupportedOperationException("The graph is frozen");
+    }
+
+    /**
+     * Not supported - this graph can't be changed.
+     *
+     * @param src represents the key of the source node.
+     * @param dest represents the key of the destination node.
+     * @return nothing.
+     */
+    @Override
+    public edge_data removeEdge(int src, int dest) {
+        throw new UnsupportedOperationException("The graph is frozen");
+    }
+
+    @Override
+    public int nodeSize() {
+        return g.nodeSize();
+    }
+
+    @Override
+    public int edgeSize() {
+        return g.edgeSize();
+    }
+
+    @Override
+    public int getMC() {
+        return g.getMC();
+    }
+
+    /**
+     * ToString method.
+     *
+     * @return the String of the frozen graph.
+     */
+    @Override
+    public String toString() {
+        return g.toString();
+    }
+
+    /**
+     * Equals method - compares the frozen graph with the given object.
+     *
+     * @param o represents the given object.
+     * @return true if the frozen graph equals to o.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof FrozenDWGraph) {
+            o = ((FrozenDWGraph) o).g;
+        }
+        return g.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return g.hashCode();
+    }
+}
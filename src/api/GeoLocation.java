@@ -1,16 +1,21 @@
 package api;
 
+import java.io.Serializable;
+
 /**
- * This class represents a geo location <x,y,z>, aka Point3D.
+ * This class represents a geo location <x,y,z>, aka Point3D (gameClient.util.Point3D extends it).
+ * A geo location can't be changed, so it may be shared (see NodeData(node_data)).
  *
  * @authors Liel.Vaknin & Renana.Levy.
  */
-public class GeoLocation implements geo_location {
+public class GeoLocation implements geo_location, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static final double EPS1 = 0.001, EPS2 = Math.pow(EPS1,2), EPS=EPS2;
-    private double x;
-    private double y;
-    private double z;
+    private final double x;
+    private final double y;
+    private final double z;
 
     /**
      * Constructor.
@@ -36,15 +41,19 @@ public class GeoLocation implements geo_location {
     }
 
     /**
-     * Constructor - Gets a String, splits it and initializes x, y and z.
+     * Constructor - Gets a String "x,y,z" and parses x, y and z from it (without splitting it, see CoordinateParser).
      *
      * @param pos represents the given String.
+     * @throws NumberFormatException if pos is not of the form "x,y,z".
      */
     public GeoLocation(String pos){
-        String[] a = pos.split(",");
-        this.x = Double.parseDouble(a[0]);
-        this.y = Double.parseDouble(a[1]);
-        this.z = Double.parseDouble(a[2]);
+        int a = CoordinateParser.end(pos, 0);
+        int b = CoordinateParser.end(pos, a + 1);
+        if (b >= pos.length())
+            throw new NumberFormatException("Not a position x,y,z: " + pos);
+        this.x = CoordinateParser.parseDouble(pos, 0, a);
+        this.y = CoordinateParser.parseDouble(pos, a + 1, b);
+        this.z = CoordinateParser.parseDouble(pos, b + 1, CoordinateParser.end(pos, b + 1));
     }
 
     /**
@@ -53,11 +62,9 @@ public class GeoLocation implements geo_location {
      * @param pos represents the given geo location.
      */
     public GeoLocation(geo_location pos){
-        if (pos == null)
-            return;
-        this.x = pos.x();
-        this.y = pos.y();
-        this.z = pos.z();
+        this.x = pos == null ? 0 : pos.x();
+        this.y = pos == null ? 0 : pos.y();
+        this.z = pos == null ? 0 : pos.z();
     }
 
     /**
@@ -115,4 +122,16 @@ public class GeoLocation implements geo_location {
         geo_location p2 = (geo_location) p;
         return ( (x==p2.x()) && (y==p2.y()) && (z==p2.z()) );
     }
+
+    /**
+     * HashCode method - equal geo locations have the same hash code (0.0 and -0.0 are equal).
+     *
+     * @return the hash code of this geo location.
+     */
+    @Override
+    public int hashCode() {
+        int h = Double.hashCode(x + 0.0);
+        h = 31 * h + Double.hashCode(y + 0.0);
+        return 31 * h + Double.hashCode(z + 0.0);
+    }
 }
\ No newline at end of file
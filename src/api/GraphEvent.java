@@ -0,0 +1,110 @@
+package api;
+
+/**
+ * This class represents a single change of a graph, reported to its graph_listeners.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public final class GraphEvent {
+
+    /**
+     * The kinds of changes.
+     */
+    public enum Type {NODE_ADDED, NODE_REMOVED, EDGE_ADDED, EDGE_REMOVED, EDGE_REWEIGHTED}
+
+    private final Type type;
+    private final int src;
+    private final int dest;
+    private final double weight;
+    private final double oldWeight;
+    private final int MC;
+
+    /**
+     * Constructor.
+     *
+     * @param type represents the kind of the change.
+     * @param src represents the key of the node, or of the source node of the edge.
+     * @param dest represents the key of the destination node of the edge, -1 for a node.
+     * @param weight represents the weight of the edge after the change (before it, for a removed edge).
+     * @param oldWeight represents the weight of a reweighted edge before the change.
+     * @param MC represents the MC of the graph after the change.
+     */
+    public GraphEvent(Type type, int src, int dest, double weight, double oldWeight, int MC) {
+        this.type = type;
+        this.src = src;
+        this.dest = dest;
+        this.weight = weight;
+        this.oldWeight = oldWeight;
+        this.MC = MC;
+    }
+
+    /**
+     * Returns the kind of this change.
+     *
+     * @return type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the key of the node (for a node change) or of the source node of the edge.
+     *
+     * @return src.
+     */
+    public int getSrc() {
+        return src;
+    }
+
+    /**
+     * Returns the key of the destination node of the edge, -1 for a node change.
+     *
+     * @return dest.
+     */
+    public int getDest() {
+        return dest;
+    }
+
+    /**
+     * Returns the weight of the edge after the change (its last weight for a removed edge).
+     *
+     * @return weight.
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the weight of a reweighted edge before the change.
+     *
+     * @return oldWeight.
+     */
+    public double getOldWeight() {
+        return oldWeight;
+    }
+
+    /**
+     * Returns the MC of the graph after the change.
+     *
+     * @return MC.
+     */
+    public int getMC() {
+        return MC;
+    }
+
+    /**
+     * ToString method.
+     *
+     * @return String which represents this change.
+     */
+    @Override
+    public String toString() {
+        if (dest == -1) {
+            return type + "(" + src + ")";
+        }
+        if (type == Type.EDGE_REWEIGHTED) {
+            return type + "(" + src + "->" + dest + ", " + oldWeight + "->" + weight + ")";
+        }
+        return type + "(" + src + "->" + dest + ", " + weight + ")";
+    }
+}
@@ -0,0 +1,424 @@
+package api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * This class reads and writes graphs as JSON by hand written Gson TypeAdapters, which stream the JSON
+ * (no reflection and no JsonObject trees). The schema is the schema of the graphs of the game server:
+ *     {"Nodes":[{"id":0,"pos":"35.18,32.10,0.0"}, ...], "Edges":[{"src":0,"dest":1,"w":1.43}, ...]}
+ * A node may also have "weight", "info" and "tag", and an edge "info" and "tag" - written only when they are set.
+ * The scratch fields of the algorithms (like the distances of Dijkstra's algorithm) and the fields of the
+ * graph itself (MC, ID, sizes) are not written.
+ * The old format of DWGraph_Algo.save() (the fields of DWGraph_DS - "nodes" and "edges" maps) is still read.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public final class GraphJson {
+
+    /**
+     * The adapter of the nodes (reads a NodeData).
+     */
+    public static final TypeAdapter<node_data> NODE = new NodeAdapter();
+
+    /**
+     * The adapter of the edges (reads an EdgeData).
+     */
+    public static final TypeAdapter<edge_data> EDGE = new EdgeAdapter();
+
+    /**
+     * The adapter of the graphs (reads a DWGraph_DS).
+     */
+    public static final TypeAdapter<directed_weighted_graph> GRAPH = new GraphAdapter();
+
+    private static final Gson GSON = register(new GsonBuilder()).create();
+
+    private GraphJson() {
+    }
+
+    /**
+     * Registers the adapters of this class (for node_data, edge_data, directed_weighted_graph and their classes)
+     * in the given GsonBuilder.
+     *
+     * @param builder represents the given GsonBuilder.
+     * @return builder.
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder.registerTypeHierarchyAdapter(node_data.class, NODE)
+                .registerTypeHierarchyAdapter(edge_data.class, EDGE)
+                .registerTypeHierarchyAdapter(directed_weighted_graph.class, GRAPH);
+    }
+
+    /**
+     * Returns a Gson with the adapters of this class.
+     *
+     * @return gson.
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Writes the given graph as JSON to the given Writer.
+     *
+     * @param g represents the given graph.
+     * @param out represents the given Writer.
+     * @throws IOException if out could not be written.
+     */
+    public static void write(directed_weighted_graph g, Writer out) throws IOException {
+        JsonWriter w = new JsonWriter(out);
+        GRAPH.write(w, g);
+        w.flush();
+    }
+
+    /**
+     * Reads a graph from the JSON of the given Reader.
+     *
+     * @param in represents the given Reader.
+     * @return a new DWGraph_DS.
+     * @throws IOException if in could not be read.
+     * @throws JsonParseException if the JSON is not a graph.
+     */
+    public static directed_weighted_graph read(Reader in) throws IOException {
+        directed_weighted_graph g = new DWGraph_DS();
+        read(in, g);
+        return g;
+    }
+
+    /**
+     * Reads the nodes and the edges of a graph from the JSON of the given Reader into the given graph.
+     *
+     * @param in represents the given Reader.
+     * @param g represents the graph which the nodes and the edges are added to.
+     * @throws IOException if in could not be read.
+     * @throws JsonParseException if the JSON is not a graph.
+     */
+    public static void read(Reader in, directed_weighted_graph g) throws IOException {
+        try {
+            readGraph(new JsonReader(in), g);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonParseException(e); // A token of the wrong type.
+        }
+    }
+
+    /**
+     * Reads the object of a graph into the given graph.
+     * The edges which are read before the nodes (the game server writes "Edges" first) are connected at the end.
+     */
+    private static void readGraph(JsonReader r, directed_weighted_graph g) throws IOException {
+        ArrayList<edge_data> pending = new ArrayList<>();
+        boolean nodes = false;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "Nodes":
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        g.addNode(NODE.read(r));
+                    }
+                    r.endArray();
+                    nodes = true;
+                    break;
+                case "nodes": // The old format - a map from the keys to the nodes.
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        r.nextName();
+                        g.addNode(NODE.read(r));
+                    }
+                    r.endObject();
+                    nodes = true;
+                    break;
+                case "Edges":
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        edge(g, EDGE.read(r), nodes ? null : pending);
+                    }
+                    r.endArray();
+                    break;
+                case "edges": // The old format - a map from the sources to maps from the destinations to the edges.
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        r.nextName();
+                        r.beginObject();
+                        while (r.hasNext()) {
+                            r.nextName();
+                            edge(g, EDGE.read(r), nodes ? null : pending);
+                        }
+                        r.endObject();
+                    }
+                    r.endObject();
+                    break;
+                default:
+                    r.skipValue();
+            }
+        }
+        r.endObject();
+        for (edge_data e : pending) {
+            edge(g, e, null);
+        }
+    }
+
+    /**
+     * Connects the given edge in the given graph (with its info and tag), or adds it to pending if it is not null.
+     */
+    private static void edge(directed_weighted_graph g, edge_data e, ArrayList<edge_data> pending) {
+        if (pending != null) {
+            pending.add(e);
+            return;
+        }
+        g.connect(e.getSrc(), e.getDest(), e.getWeight());
+        if (e.getInfo() != null || e.getTag() != 0) {
+            edge_data added = g.getEdge(e.getSrc(), e.getDest());
+            if (added != null) {
+                added.setInfo(e.getInfo());
+                added.setTag(e.getTag());
+            }
+        }
+    }
+
+    /**
+     * Writes and reads a graph - {"Nodes":[...],"Edges":[...]}.
+     */
+    private static final class GraphAdapter extends TypeAdapter<directed_weighted_graph> {
+
+        @Override
+        public void write(JsonWriter w, directed_weighted_graph g) throws IOException {
+            if (g == null) {
+                w.nullValue();
+                return;
+            }
+            w.beginObject();
+            w.name("Nodes").beginArray();
+            for (node_data n : g.getV()) {
+                NODE.write(w, n);
+            }
+            w.endArray();
+            w.name("Edges").beginArray();
+            for (node_data n : g.getV()) {
+                Collection<edge_data> edges = g.getE(n.getKey());
+                if (edges == null) {
+                    continue;
+                }
+                for (edge_data e : edges) {
+                    EDGE.write(w, e);
+                }
+            }
+            w.endArray();
+            w.endObject();
+        }
+
+        @Override
+        public directed_weighted_graph read(JsonReader r) throws IOException {
+            if (r.peek() == JsonToken.NULL) {
+                r.nextNull();
+                return null;
+            }
+            directed_weighted_graph g = new DWGraph_DS();
+            readGraph(r, g);
+            return g;
+        }
+    }
+
+    /**
+     * Writes and reads a node - {"id":0,"pos":"x,y,z"} (and "weight", "info", "tag" when they are set).
+     * Also reads the old format - {"key":0,"nodeInfo":"","nodeTag":0,"nodeWeight":0.0,"nodeGeoLocation":{...}}.
+     */
+    private static final class NodeAdapter extends TypeAdapter<node_data> {
+
+        @Override
+        public void write(JsonWriter w, node_data n) throws IOException {
+            if (n == null) {
+                w.nullValue();
+                return;
+            }
+            w.beginObject();
+            w.name("id").value(n.getKey());
+            geo_location p = n.getLocation();
+            if (p != null) {
+                w.name("pos").value(p.x() + "," + p.y() + "," + p.z());
+            }
+            if (n.getWeight() != 0) {
+                w.name("weight").value(n.getWeight());
+            }
+            if (n.getInfo() != null && !n.getInfo().isEmpty()) {
+                w.name("info").value(n.getInfo());
+            }
+            if (n.getTag() != 0) {
+                w.name("tag").value(n.getTag());
+            }
+            w.endObject();
+        }
+
+        @Override
+        public node_data read(JsonReader r) throws IOException {
+            if (r.peek() == JsonToken.NULL) {
+                r.nextNull();
+                return null;
+            }
+            int key = -1;
+            String info = "";
+            int tag = 0;
+            double weight = 0;
+            geo_location pos = null;
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "id":
+                    case "key":
+                        key = r.nextInt();
+                        break;
+                    case "pos":
+                        pos = new GeoLocation(r.nextString());
+                        break;
+                    case "nodeGeoLocation":
+                        pos = readLocation(r);
+                        break;
+                    case "weight":
+                    case "nodeWeight":
+                        weight = r.nextDouble();
+                        break;
+                    case "info":
+                    case "nodeInfo":
+                        info = nextString(r);
+                        break;
+                    case "tag":
+                    case "nodeTag":
+                        tag = r.nextInt();
+                        break;
+                    default:
+                        r.skipValue(); // The scratch fields of the old format.
+                }
+            }
+            r.endObject();
+            if (key < 0) {
+                throw new JsonParseException("A node without an id");
+            }
+            node_data n = new NodeData(key);
+            n.setLocation(pos);
+            n.setWeight(weight);
+            n.setInfo(info);
+            n.setTag(tag);
+            return n;
+        }
+
+        /**
+         * Reads a location of the old format - {"x":1.0,"y":2.0,"z":0.0}.
+         */
+        private static geo_location readLocation(JsonReader r) throws IOException {
+            if (r.peek() == JsonToken.NULL) {
+                r.nextNull();
+                return null;
+            }
+            double x = 0, y = 0, z = 0;
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "x":
+                        x = r.nextDouble();
+                        break;
+                    case "y":
+                        y = r.nextDouble();
+                        break;
+                    case "z":
+                        z = r.nextDouble();
+                        break;
+                    default:
+                        r.skipValue();
+                }
+            }
+            r.endObject();
+            return new GeoLocation(x, y, z);
+        }
+    }
+
+    /**
+     * Writes and reads an edge - {"src":0,"dest":1,"w":1.5} (and "info", "tag" when they are set).
+     * Also reads the old format - {"src":0,"dest":1,"edgeWeight":1.5,"edgeInfo":"","edgeTag":0}.
+     */
+    private static final class EdgeAdapter extends TypeAdapter<edge_data> {
+
+        @Override
+        public void write(JsonWriter w, edge_data e) throws IOException {
+            if (e == null) {
+                w.nullValue();
+                return;
+            }
+            w.beginObject();
+            w.name("src").value(e.getSrc());
+            w.name("dest").value(e.getDest());
+            w.name("w").value(e.getWeight());
+            if (e.getInfo() != null) {
+                w.name("info").value(e.getInfo());
+            }
+            if (e.getTag() != 0) {
+                w.name("tag").value(e.getTag());
+            }
+            w.endObject();
+        }
+
+        @Override
+        public edge_data read(JsonReader r) throws IOException {
+            if (r.peek() == JsonToken.NULL) {
+                r.nextNull();
+                return null;
+            }
+            int src = -1, dest = -1, tag = 0;
+            double weight = 0;
+            String info = null;
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "src":
+                        src = r.nextInt();
+                        break;
+                    case "dest":
+                        dest = r.nextInt();
+                        break;
+                    case "w":
+                    case "edgeWeight":
+                        weight = r.nextDouble();
+                        break;
+                    case "info":
+                    case "edgeInfo":
+                        info = nextString(r);
+                        break;
+                    case "tag":
+                    case "edgeTag":
+                        tag = r.nextInt();
+                        break;
+                    default:
+                        r.skipValue();
+                }
+            }
+            r.endObject();
+            if (src < 0 || dest < 0) {
+                throw new JsonParseException("An edge without src or dest");
+            }
+            edge_data e = new EdgeData(src, dest, weight);
+            e.setInfo(info);
+            e.setTag(tag);
+            return e;
+        }
+    }
+
+    /**
+     * Reads a String which may be null.
+     */
+    private static String nextString(JsonReader r) throws IOException {
+        if (r.peek() == JsonToken.NULL) {
+            r.nextNull();
+            return null;
+        }
+        return r.nextString();
+    }
+}
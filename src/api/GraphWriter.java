@@ -0,0 +1,102 @@
+package api;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * This class writes graphs as text to an Appendable (e.g. a StringBuilder or a BufferedWriter), node by node,
+ * so a huge graph can be written to a file without building all the text in memory.
+ * The formats:
+ * - text: the format of DWGraph_DS.toString() - [(0: {1- weight = 6.0, 2- weight = 9.0}) , (1: {})].
+ * - DOT: a Graphviz digraph - the nodes (with their locations as pos) and then the edges (with their weights as labels).
+ * - edge list: a line "src dest weight" for every edge.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class GraphWriter {
+
+    private GraphWriter() {
+    }
+
+    /**
+     * Writes the given graph in the format of DWGraph_DS.toString().
+     *
+     * @param g represents the given graph.
+     * @param out represents the Appendable to write to.
+     * @throws IOException if out could not be written.
+     */
+    public static void writeText(directed_weighted_graph g, Appendable out) throws IOException {
+        out.append('[');
+        boolean firstNode = true;
+        for (node_data n : g.getV()) {
+            if (!firstNode) {
+                out.append(" , ");
+            }
+            firstNode = false;
+            out.append('(').append(Integer.toString(n.getKey())).append(": {");
+            Collection<edge_data> edges = g.getE(n.getKey());
+            if (edges != null) {
+                boolean first = true;
+                for (edge_data e : edges) {
+                    if (!first) {
+                        out.append(", ");
+                    }
+                    first = false;
+                    out.append(Integer.toString(e.getDest())).append("- weight = ").append(Double.toString(e.getWeight()));
+                }
+            }
+            out.append("})");
+        }
+        out.append(']');
+    }
+
+    /**
+     * Writes the given graph as a Graphviz digraph.
+     *
+     * @param g represents the given graph.
+     * @param out represents the Appendable to write to.
+     * @throws IOException if out could not be written.
+     */
+    public static void writeDot(directed_weighted_graph g, Appendable out) throws IOException {
+        out.append("digraph G {\n");
+        for (node_data n : g.getV()) {
+            out.append("  ").append(Integer.toString(n.getKey()));
+            geo_location p = n.getLocation();
+            if (p != null) {
+                out.append(" [pos=\"").append(Double.toString(p.x())).append(',').append(Double.toString(p.y())).append("!\"]");
+            }
+            out.append(";\n");
+        }
+        for (node_data n : g.getV()) {
+            Collection<edge_data> edges = g.getE(n.getKey());
+            if (edges == null) {
+                continue;
+            }
+            for (edge_data e : edges) {
+                out.append("  ").append(Integer.toString(e.getSrc())).append(" -> ").append(Integer.toString(e.getDest()))
+                        .append(" [label=\"").append(Double.toString(e.getWeight())).append("\"];\n");
+            }
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Writes the edges of the given graph, a line "src dest weight" for every edge.
+     *
+     * @param g represents the given graph.
+     * @param out represents the Appendable to write to.
+     * @throws IOException if out could not be written.
+     */
+    public static void writeEdgeList(directed_weighted_graph g, Appendable out) throws IOException {
+        for (node_data n : g.getV()) {
+            Collection<edge_data> edges = g.getE(n.getKey());
+            if (edges == null) {
+                continue;
+            }
+            for (edge_data e : edges) {
+                out.append(Integer.toString(e.getSrc())).append(' ').append(Integer.toString(e.getDest())).append(' ')
+                        .append(Double.toString(e.getWeight())).append('\n');
+            }
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class NodeData implements node_data, Comparable<node_data>{
 
     /**
      * Copy constructor - Performs a deep copy of a given node.
+     * A GeoLocation can't be changed, so it is shared instead of copied.
      *
      * @param node represents the given node.
      */
@@ -47,8 +48,11 @@ public class NodeData implements node_data, Comparable<node_data>{
         this.nodeInfo = node.getInfo();
         this.nodeTag = node.getTag();
         this.nodeWeight= node.getWeight();
-        if (node.getLocation() != null)
-            this.nodeGeoLocation = new GeoLocation(node.getLocation());
+        geo_location location = node.getLocation();
+        if (location != null && location.getClass() == GeoLocation.class)
+            this.nodeGeoLocation = location;
+        else if (location != null)
+            this.nodeGeoLocation = new GeoLocation(location);
     }
 
     /**
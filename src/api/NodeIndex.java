@@ -0,0 +1,265 @@
+package api;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * This class maps the keys of the nodes of a graph (any int, not necessarily 0..V-1) to dense indexes 0..size()-1
+ * and back, so algorithms may keep their state in arrays indexed by the dense index (instead of maps by the key,
+ * or the fields of the nodes) and translate keys only when they are given or returned.
+ * The map is built once from a snapshot of the nodes - it doesn't follow changes of the graph.
+ * The key --> index direction is an open addressing hash table of ints (no boxing), the index --> key
+ * direction is an array.
+ * The order of the indexes may be the order of getV() (of()), or an order which keeps near nodes at near indexes,
+ * so the rows of an array algorithm that are read together are near in memory:
+ * - bfs() - breadth first search over the out-edges, so the neighbours of a node get close indexes.
+ * - hilbert() - the order of the locations of the nodes on a Hilbert curve, so near locations get close indexes.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public final class NodeIndex {
+
+    private static final int EMPTY = -1;
+    private static final int HILBERT_ORDER = 15; // A grid of 2^15 * 2^15 cells, so a distance takes 30 bits.
+
+    private int[] keys;
+    private int[] slots; // Index + 1 of the key in the slot, 0 for an empty slot.
+    private int size;
+
+    /**
+     * Constructor - an empty map.
+     *
+     * @param capacity represents the expected number of nodes.
+     */
+    NodeIndex(int capacity) {
+        capacity = Math.max(capacity, 4);
+        this.keys = new int[capacity];
+        this.slots = new int[tableSize(capacity)];
+    }
+
+    /**
+     * Returns a map of the nodes of the given graph, by the order of getV().
+     *
+     * @param g represents the given graph.
+     * @return the map.
+     */
+    public static NodeIndex of(directed_weighted_graph g) {
+        NodeIndex ans = new NodeIndex(g.nodeSize());
+        for (node_data n : g.getV()) {
+            ans.add(n.getKey());
+        }
+        return ans;
+    }
+
+    /**
+     * Returns a map of the given keys, by their order - the index of keys[i] is i.
+     *
+     * @param keys represents the given keys.
+     * @return the map.
+     * @throws IllegalArgumentException if a key appears twice.
+     */
+    public static NodeIndex of(int[] keys) {
+        NodeIndex ans = new NodeIndex(keys.length);
+        for (int key : keys) {
+            ans.add(key);
+        }
+        return ans;
+    }
+
+    /**
+     * Returns a map of the nodes of the given graph by the order of a breadth first search over the out-edges,
+     * started from every node which was not reached yet (by the order of getV()).
+     *
+     * @param g represents the given graph.
+     * @return the map.
+     */
+    public static NodeIndex bfs(directed_weighted_graph g) {
+        NodeIndex ans = new NodeIndex(g.nodeSize());
+        for (node_data n : g.getV()) {
+            if (ans.indexOf(n.getKey()) != EMPTY) {
+                continue;
+            }
+            int head = ans.size;
+            ans.add(n.getKey());
+            while (head < ans.size) { // The keys after head are the queue.
+                Collection<edge_data> out = g.getE(ans.keys[head++]);
+                if (out == null) {
+                    continue;
+                }
+                for (edge_data e : out) {
+                    if (ans.indexOf(e.getDest()) == EMPTY && g.getNode(e.getDest()) != null) {
+                        ans.add(e.getDest());
+                    }
+                }
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * Returns a map of the nodes of the given graph by the order of their locations on a Hilbert curve over the
+     * bounding box of the locations. The nodes without a location are last (by the order of getV()),
+     * as are nodes on the same cell of the curve.
+     *
+     * @param g represents the given graph.
+     * @return the map.
+     */
+    public static NodeIndex hilbert(directed_weighted_graph g) {
+        int n = g.nodeSize();
+        int[] keys = new int[n];
+        double[] x = new double[n], y = new double[n];
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        int i = 0;
+        for (node_data v : g.getV()) {
+            geo_location p = v.getLocation();
+            keys[i] = v.getKey();
+            x[i] = p == null ? Double.NaN : p.x();
+            y[i] = p == null ? Double.NaN : p.y();
+            if (p != null) {
+                minX = Math.min(minX, p.x());
+                maxX = Math.max(maxX, p.x());
+                minY = Math.min(minY, p.y());
+                maxY = Math.max(maxY, p.y());
+            }
+            i++;
+        }
+        int side = (1 << HILBERT_ORDER) - 1;
+        double scaleX = maxX > minX ? side / (maxX - minX) : 0;
+        double scaleY = maxY > minY ? side / (maxY - minY) : 0;
+        long[] order = new long[n]; // The distance on the curve (high bits) and the index in getV() (low 32 bits).
+        for (i = 0; i < n; i++) {
+            long d = Double.isNaN(x[i]) ? 1L << (2 * HILBERT_ORDER) // After every cell of the curve.
+                    : hilbertDistance((int) ((x[i] - minX) * scaleX), (int) ((y[i] - minY) * scaleY));
+            order[i] = d << 32 | i;
+        }
+        Arrays.sort(order);
+        NodeIndex ans = new NodeIndex(n);
+        for (long o : order) {
+            ans.add(keys[(int) o]);
+        }
+        return ans;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the node with the given key.
+     *
+     * @param key represents the given key.
+     * @return the index, -1 if there is no such node.
+     */
+    public int indexOf(int key) {
+        int mask = slots.length - 1;
+        for (int s = hash(key) & mask; slots[s] != 0; s = (s + 1) & mask) {
+            if (keys[slots[s] - 1] == key) {
+                return slots[s] - 1;
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Returns the key of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @return the key.
+     */
+    public int key(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + ", size " + size);
+        }
+        return keys[i];
+    }
+
+    /**
+     * Returns the keys by their indexes - a copy.
+     *
+     * @return the keys.
+     */
+    public int[] keys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * Adds a key with the next index - only while the map is built (e.g. by NodeStore, which only grows).
+     *
+     * @param key represents the key of the node.
+     * @return the index of the node.
+     * @throws IllegalArgumentException if the key is already in the map.
+     */
+    int add(int key) {
+        if (indexOf(key) != EMPTY) {
+            throw new IllegalArgumentException("There is already a node with the key " + key);
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        if (tableSize(size + 1) > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int i = 0; i < size; i++) {
+                put(i);
+            }
+        }
+        keys[size] = key;
+        put(size);
+        return size++;
+    }
+
+    /**
+     * Puts the given index in the slot of its key.
+     */
+    private void put(int i) {
+        int mask = slots.length - 1;
+        int s = hash(keys[i]) & mask;
+        while (slots[s] != 0) {
+            s = (s + 1) & mask;
+        }
+        slots[s] = i + 1;
+    }
+
+    /**
+     * Returns the size of a table for the given number of keys - a power of 2, at most half full.
+     */
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) * 2;
+    }
+
+    /**
+     * Mixes the bits of the key, so consecutive keys don't fill consecutive slots.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the distance of the cell (x, y) along the Hilbert curve over a grid of 2^HILBERT_ORDER cells per side.
+     */
+    private static long hilbertDistance(int x, int y) {
+        int n = 1 << HILBERT_ORDER;
+        long d = 0;
+        for (int s = n / 2; s > 0; s >>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) { // Rotates the quadrant.
+                if (rx == 1) {
+                    x = n - 1 - x;
+                    y = n - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+}
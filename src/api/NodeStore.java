@@ -0,0 +1,436 @@
+package api;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class keeps the data of the nodes of a graph in parallel primitive arrays (x, y, z, weight, tag),
+ * indexed by a dense index (0..size()-1) given to every node by the order it was added,
+ * instead of an object (NodeData) per node which is spread on the heap.
+ * Loops over all the nodes (e.g. the bounding box, the nearest node, drawing) read contiguous memory.
+ * A node_data view of a node is created only on demand (node(), getNode(), iterator()) - it reads and writes
+ * the arrays, and its location is a new GeoLocation on every getLocation().
+ * The store only grows - nodes are added and never removed.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class NodeStore implements Iterable<node_data> {
+
+    private int[] keys;
+    private double[] x, y, z;
+    private double[] weight;
+    private int[] tag;
+    private String[] info; // Allocated by the first setInfo() of a non empty info.
+    private final NodeIndex index;
+    private int size;
+
+    /**
+     * Constructor - an empty store.
+     *
+     * @param capacity represents the expected number of nodes.
+     */
+    public NodeStore(int capacity) {
+        capacity = Math.max(capacity, 4);
+        this.keys = new int[capacity];
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.z = new double[capacity];
+        this.weight = new double[capacity];
+        this.tag = new int[capacity];
+        this.index = new NodeIndex(capacity);
+    }
+
+    /**
+     * Returns a store of the nodes of the given graph, by the order of getV().
+     *
+     * @param g represents the given graph.
+     * @return the store.
+     */
+    public static NodeStore of(directed_weighted_graph g) {
+        NodeStore ans = new NodeStore(g.nodeSize());
+        for (node_data n : g.getV()) {
+            int i = ans.add(n.getKey(), n.getLocation());
+            ans.weight[i] = n.getWeight();
+            ans.tag[i] = n.getTag();
+            ans.setInfo(i, n.getInfo());
+        }
+        return ans;
+    }
+
+    /**
+     * Adds a node.
+     *
+     * @param key represents the key of the node.
+     * @param p represents the location of the node, may be null.
+     * @return the index of the node.
+     * @throws IllegalArgumentException if there is already a node with the given key.
+     */
+    public int add(int key, geo_location p) {
+        if (p == null) {
+            return add(key, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return add(key, p.x(), p.y(), p.z());
+    }
+
+    /**
+     * Adds a node.
+     *
+     * @param key represents the key of the node.
+     * @param px represents the x of the location of the node (NaN for no location).
+     * @param py represents the y of the location of the node.
+     * @param pz represents the z of the location of the node.
+     * @return the index of the node.
+     * @throws IllegalArgumentException if there is already a node with the given key.
+     */
+    public int add(int key, double px, double py, double pz) {
+        index.add(key); // Throws for a key which is already in the store, its index is size.
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            z = Arrays.copyOf(z, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            tag = Arrays.copyOf(tag, capacity);
+            if (info != null) {
+                info = Arrays.copyOf(info, capacity);
+            }
+        }
+        keys[size] = key;
+        x[size] = px;
+        y[size] = py;
+        z[size] = pz;
+        return size++;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the node with the given key.
+     *
+     * @param key represents the given key.
+     * @return the index, -1 if there is no such node.
+     */
+    public int indexOf(int key) {
+        return index.indexOf(key);
+    }
+
+    /**
+     * Returns the key of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @return the key.
+     */
+    public int key(int i) {
+        return keys[check(i)];
+    }
+
+    /**
+     * Returns the x of the location of the node with the given index (NaN if it has no location).
+     *
+     * @param i represents the index of the node.
+     * @return x.
+     */
+    public double x(int i) {
+        return x[check(i)];
+    }
+
+    /**
+     * Returns the y of the location of the node with the given index (NaN if it has no location).
+     *
+     * @param i represents the index of the node.
+     * @return y.
+     */
+    public double y(int i) {
+        return y[check(i)];
+    }
+
+    /**
+     * Returns the z of the location of the node with the given index (NaN if it has no location).
+     *
+     * @param i represents the index of the node.
+     * @return z.
+     */
+    public double z(int i) {
+        return z[check(i)];
+    }
+
+    /**
+     * Returns true iff the node with the given index has a location.
+     *
+     * @param i represents the index of the node.
+     * @return true if the node has a location.
+     */
+    public boolean hasLocation(int i) {
+        return !Double.isNaN(x[check(i)]);
+    }
+
+    /**
+     * Sets the location of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @param p represents the new location, null for no location.
+     */
+    public void setLocation(int i, geo_location p) {
+        check(i);
+        x[i] = p == null ? Double.NaN : p.x();
+        y[i] = p == null ? Double.NaN : p.y();
+        z[i] = p == null ? Double.NaN : p.z();
+    }
+
+    /**
+     * Returns the weight of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @return weight.
+     */
+    public double weight(int i) {
+        return weight[check(i)];
+    }
+
+    /**
+     * Sets the weight of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @param w represents the new weight.
+     */
+    public void setWeight(int i, double w) {
+        weight[check(i)] = w;
+    }
+
+    /**
+     * Returns the tag of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @return tag.
+     */
+    public int tag(int i) {
+        return tag[check(i)];
+    }
+
+    /**
+     * Sets the tag of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @param t represents the new tag.
+     */
+    public void setTag(int i, int t) {
+        tag[check(i)] = t;
+    }
+
+    /**
+     * Returns the info of the node with the given index ("" if it was never set, like NodeData).
+     *
+     * @param i represents the index of the node.
+     * @return info.
+     */
+    public String info(int i) {
+        check(i);
+        return info == null || info[i] == null ? "" : info[i];
+    }
+
+    /**
+     * Sets the info of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @param s represents the new info.
+     */
+    public void setInfo(int i, String s) {
+        check(i);
+        if (info == null) {
+            if (s == null || s.isEmpty()) {
+                return;
+            }
+            info = new String[keys.length];
+        }
+        info[i] = s;
+    }
+
+    /**
+     * Writes the bounding box of the locations of the nodes to out - {minX, minY, maxX, maxY},
+     * all 0 if no node has a location.
+     *
+     * @param out represents an array of at least 4 doubles.
+     */
+    public void bounds(double[] out) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            double px = x[i], py = y[i];
+            if (Double.isNaN(px)) {
+                continue;
+            }
+            if (px < minX) minX = px;
+            if (px > maxX) maxX = px;
+            if (py < minY) minY = py;
+            if (py > maxY) maxY = py;
+        }
+        if (minX > maxX) {
+            minX = minY = maxX = maxY = 0;
+        }
+        out[0] = minX;
+        out[1] = minY;
+        out[2] = maxX;
+        out[3] = maxY;
+    }
+
+    /**
+     * Returns the index of the node nearest to the given position (by x and y).
+     *
+     * @param px represents the x of the given position.
+     * @param py represents the y of the given position.
+     * @return the index of the nearest node with a location, -1 if there is none.
+     */
+    public int nearest(double px, double py) {
+        int ans = -1;
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            double dx = x[i] - px, dy = y[i] - py;
+            double d = dx * dx + dy * dy;
+            if (d < best) { // Never true for NaN.
+                best = d;
+                ans = i;
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * Returns a node_data view of the node with the given index.
+     *
+     * @param i represents the index of the node.
+     * @return the view.
+     */
+    public node_data node(int i) {
+        return new View(check(i));
+    }
+
+    /**
+     * Returns a node_data view of the node with the given key.
+     *
+     * @param key represents the given key.
+     * @return the view, null if there is no such node.
+     */
+    public node_data getNode(int key) {
+        int i = indexOf(key);
+        return i == -1 ? null : new View(i);
+    }
+
+    /**
+     * Returns an iterator over views of the nodes, by their indexes.
+     *
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<node_data> iterator() {
+        return new Iterator<node_data>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public node_data next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                return new View(i++);
+            }
+        };
+    }
+
+    /**
+     * Checks that the given index is an index of a node.
+     */
+    private int check(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + ", size " + size);
+        }
+        return i;
+    }
+
+    /**
+     * A node_data which reads and writes the arrays of the store at its index.
+     */
+    private final class View implements node_data {
+        private final int i;
+
+        private View(int i) {
+            this.i = i;
+        }
+
+        @Override
+        public int getKey() {
+            return keys[i];
+        }
+
+        @Override
+        public geo_location getLocation() {
+            return hasLocation(i) ? new GeoLocation(x[i], y[i], z[i]) : null;
+        }
+
+        @Override
+        public void setLocation(geo_location p) {
+            NodeStore.this.setLocation(i, p);
+        }
+
+        @Override
+        public double getWeight() {
+            return weight[i];
+        }
+
+        @Override
+        public void setWeight(double w) {
+            weight[i] = w;
+        }
+
+        @Override
+        public String getInfo() {
+            return info(i);
+        }
+
+        @Override
+        public void setInfo(String s) {
+            NodeStore.this.setInfo(i, s);
+        }
+
+        @Override
+        public int getTag() {
+            return tag[i];
+        }
+
+        @Override
+        public void setTag(int t) {
+            tag[i] = t;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof View && ((View) o).store() == NodeStore.this && ((View) o).i == i;
+        }
+
+        @Override
+        public int hashCode() {
+            return keys[i];
+        }
+
+        @Override
+        public String toString() {
+            return "" + keys[i];
+        }
+
+        private NodeStore store() {
+            return NodeStore.this;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package api;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * This class represents a table of the shortest paths between all the pairs of nodes of a graph.
+ * The table is computed once (Dijkstra's algorithm from every node) and never changes,
+ * so it may be shared and read by many threads at the same time - unlike DWGraph_Algo,
+ * which keeps the state of Dijkstra's algorithm in the nodes of the graph.
+ * The table takes O(V^2) memory, it is meant for the graphs of the game (up to a few thousands nodes).
+ * The table also knows the strongly connected components of the graph,
+ * and can be written to (and read from) a ByteBuffer - a read table may stay in a memory mapped file.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class PathTable {
+
+    private final directed_weighted_graph g;
+    private final NodeIndex nodes;
+    private final DoubleBuffer dist;
+    private final IntBuffer next;
+    private final int[] components;
+
+    /**
+     * Constructor - computes the table of the given graph, with the rows by the order of getV().
+     * The graph should not be changed while the table is used.
+     *
+     * @param g represents the given graph.
+     */
+    public PathTable(directed_weighted_graph g) {
+        this(g, NodeIndex.of(g));
+    }
+
+    /**
+     * Constructor - computes the table of the given graph, with the rows (and the columns) by the indexes
+     * of the given map, e.g. NodeIndex.bfs(g) so the rows of near nodes are near in memory.
+     * Dijkstra's algorithm runs on the indexes only - the edges are copied once to arrays by the indexes.
+     * The graph should not be changed while the table is used.
+     *
+     * @param g represents the given graph.
+     * @param nodes represents a map of all the nodes of g.
+     * @throws IllegalArgumentException if nodes is not a map of the nodes of g.
+     */
+    public PathTable(directed_weighted_graph g, NodeIndex nodes) {
+        if (nodes.size() != g.nodeSize()) {
+            throw new IllegalArgumentException("The map has " + nodes.size() + " nodes, the graph " + g.nodeSize());
+        }
+        this.g = g;
+        this.nodes = nodes;
+        int n = nodes.size();
+        int[] start = new int[n + 1]; // The out-edges of i are to[start[i]..start[i+1]-1].
+        int[] to = new int[g.edgeSize()];
+        double[] w = new double[g.edgeSize()];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (g.getNode(nodes.key(i)) == null) {
+                throw new IllegalArgumentException("The key " + nodes.key(i) + " is not in the graph");
+            }
+            start[i] = m;
+            Collection<edge_data> out = g.getE(nodes.key(i));
+            if (out == null) {
+                continue;
+            }
+            for (edge_data e : out) {
+                to[m] = nodes.indexOf(e.getDest());
+                w[m++] = e.getWeight();
+            }
+        }
+        start[n] = m;
+        double[] dist = new double[n * n];
+        int[] next = new int[n * n];
+        for (int s = 0; s < n; s++) {
+            dijkstra(s, start, to, w, dist, next);
+        }
+        this.dist = DoubleBuffer.wrap(dist);
+        this.next = IntBuffer.wrap(next);
+        this.components = components();
+    }
+
+    /**
+     * Constructor - a table which was read by readFrom().
+     */
+    private PathTable(directed_weighted_graph g, NodeIndex nodes, DoubleBuffer dist, IntBuffer next, int[] components) {
+        this.g = g;
+        this.nodes = nodes;
+        this.dist = dist;
+        this.next = next;
+        this.components = components;
+    }
+
+    /**
+     * Returns the graph of this table.
+     *
+     * @return g.
+     */
+    public directed_weighted_graph getGraph() {
+        return g;
+    }
+
+    /**
+     * Returns the map of the keys of the nodes to the indexes of the rows of this table.
+     *
+     * @return nodes.
+     */
+    public NodeIndex getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the length of the shortest path between src to dest,
+     * if there is no such path --> returns -1.
+     *
+     * @param src represents the starting point.
+     * @param dest represents the ending point.
+     * @return length of shortest path.
+     */
+    public double shortestPathDist(int src, int dest) {
+        int s = nodes.indexOf(src), d = nodes.indexOf(dest);
+        if (s == -1 || d == -1) {
+            return -1;
+        }
+        double ans = dist.get(s * nodes.size() + d);
+        return ans == Double.POSITIVE_INFINITY ? -1 : ans;
+    }
+
+    /**
+     * Returns the shortest path between src to dest - as an ordered List of nodes:
+     * src --> n1 --> n2 -->...dest,
+     * if no such path --> returns null.
+     *
+     * @param src represents the starting point.
+     * @param dest represents the ending point.
+     * @return the shortest path as an ordered list of nodes.
+     */
+    public List<node_data> shortestPath(int src, int dest) {
+        int s = nodes.indexOf(src), d = nodes.indexOf(dest);
+        int n = nodes.size();
+        if (s == -1 || d == -1 || dist.get(s * n + d) == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        List<node_data> path = new ArrayList<>();
+        int cur = s;
+        path.add(g.getNode(nodes.key(cur)));
+        while (cur != d) {
+            cur = next.get(cur * n + d);
+            path.add(g.getNode(nodes.key(cur)));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the id of the strongly connected component of the given node -
+     * two nodes have the same id iff there is a path from each one of them to the other.
+     *
+     * @param key represents the key of the given node.
+     * @return the id of the component, -1 if the node is not in the graph.
+     */
+    public int component(int key) {
+        int i = nodes.indexOf(key);
+        return i == -1 ? -1 : components[i];
+    }
+
+    /**
+     * Returns the number of bytes writeTo() writes.
+     *
+     * @return the size of this table in bytes.
+     */
+    public int byteSize() {
+        int n = nodes.size();
+        return 8 + n * n * 12 + n * 8;
+    }
+
+    /**
+     * Writes this table to the given buffer, from its position - the number of nodes,
+     * the distances, the next nodes, the keys and the components.
+     * The distances start 8 bytes after the position, so they are aligned if the position is.
+     *
+     * @param out represents the given buffer, with at least byteSize() bytes remaining.
+     */
+    public void writeTo(ByteBuffer out) {
+        int n = nodes.size();
+        out.putInt(n);
+        out.putInt(0);
+        for (int i = 0; i < n * n; i++) {
+            out.putDouble(dist.get(i));
+        }
+        for (int i = 0; i < n * n; i++) {
+            out.putInt(next.get(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putInt(nodes.key(i));
+        }
+        for (int i = 0; i < n; i++) {
+            out.putInt(components[i]);
+        }
+    }
+
+    /**
+     * Reads a table written by writeTo() from the given buffer, from its position.
+     * The distances and the next nodes are not copied - they are views of the buffer,
+     * which therefore must not be changed afterwards.
+     *
+     * @param g represents the graph of the table.
+     * @param in represents the given buffer, its position is moved to the end of the table.
+     * @return the table, null if it doesn't match the nodes of g.
+     */
+    public static PathTable readFrom(directed_weighted_graph g, ByteBuffer in) {
+        int n = in.getInt();
+        in.getInt();
+        if (n != g.nodeSize() || (long) n * n * 12 + n * 8L > in.remaining()) {
+            return null;
+        }
+        int p = in.position();
+        DoubleBuffer dist = in.slice(p, n * n * 8).asDoubleBuffer();
+        IntBuffer next = in.slice(p + n * n * 8, n * n * 4).asIntBuffer();
+        in.position(p + n * n * 12);
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = in.getInt();
+            if (g.getNode(keys[i]) == null) {
+                return null;
+            }
+        }
+        int[] components = new int[n];
+        for (int i = 0; i < n; i++) {
+            components[i] = in.getInt();
+        }
+        NodeIndex nodes;
+        try {
+            nodes = NodeIndex.of(keys);
+        } catch (IllegalArgumentException e) {
+            return null; // A key appears twice.
+        }
+        return new PathTable(g, nodes, dist, next, components);
+    }
+
+    /**
+     * Computes the strongly connected components from the distances -
+     * i and j are in the same component iff j is reachable from i and i is reachable from j.
+     *
+     * @return the id of the component of every node by its index.
+     */
+    private int[] components() {
+        int n = nodes.size();
+        int[] ans = new int[n];
+        Arrays.fill(ans, -1);
+        int c = 0;
+        for (int i = 0; i < n; i++) {
+            if (ans[i] != -1) {
+                continue;
+            }
+            ans[i] = c;
+            for (int j = i + 1; j < n; j++) {
+                if (ans[j] == -1 && dist.get(i * n + j) != Double.POSITIVE_INFINITY
+                        && dist.get(j * n + i) != Double.POSITIVE_INFINITY) {
+                    ans[j] = c;
+                }
+            }
+            c++;
+        }
+        return ans;
+    }
+
+    /**
+     * Fills the row of the given source - the distances and the first node on the way to every node.
+     *
+     * @param s represents the index of the source node.
+     * @param start represents the first out-edge of every index (and the number of edges at the end).
+     * @param to represents the index of the destination of every edge.
+     * @param w represents the weight of every edge.
+     * @param dist represents the distances of the table.
+     * @param next represents the next nodes of the table.
+     */
+    private void dijkstra(int s, int[] start, int[] to, double[] w, double[] dist, int[] next) {
+        int n = nodes.size();
+        int row = s * n;
+        Arrays.fill(dist, row, row + n, Double.POSITIVE_INFINITY);
+        Arrays.fill(next, row, row + n, -1);
+        boolean[] visited = new boolean[n];
+        PriorityQueue<double[]> q = new PriorityQueue<>(Comparator.comparingDouble((double[] x) -> x[1]));
+        dist[row + s] = 0;
+        next[row + s] = s;
+        q.add(new double[]{s, 0});
+        while (!q.isEmpty()) {
+            double[] rm = q.poll();
+            int u = (int) rm[0];
+            if (visited[u]) {
+                continue;
+            }
+            visited[u] = true;
+            for (int k = start[u]; k < start[u + 1]; k++) {
+                int v = to[k];
+                double path = dist[row + u] + w[k];
+                if (path < dist[row + v]) {
+                    dist[row + v] = path;
+                    next[row + v] = u == s ? v : next[row + u];
+                    q.add(new double[]{v, path});
+                }
+            }
+        }
+    }
+}
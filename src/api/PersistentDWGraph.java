@@ -0,0 +1,334 @@
+package api;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * This class represents a persistent directed weighted graph - a version of a graph which never changes.
+ * withNode(), withEdge(), withoutNode() and withoutEdge() return a new version of the graph, which shares
+ * with this version everything but the O(log(n)) trie nodes on the way to the change (see PersistentIntMap),
+ * so a strategy can try "what if" changes (e.g. removing a blocked edge) without copying the graph,
+ * and every version can be read by many threads at the same time.
+ * The methods of directed_weighted_graph which change the graph throw UnsupportedOperationException.
+ * The node_data and edge_data objects are shared between the versions, so they should not be changed.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public final class PersistentDWGraph implements directed_weighted_graph {
+
+    private static final PersistentDWGraph EMPTY = new PersistentDWGraph(PersistentIntMap.empty(),
+            PersistentIntMap.empty(), PersistentIntMap.empty(), 0, 0, 0);
+
+    private final PersistentIntMap<node_data> nodes;
+    private final PersistentIntMap<PersistentIntMap<edge_data>> out;
+    private final PersistentIntMap<PersistentIntMap<edge_data>> in;
+    private final int edgeSize;
+    private final int MC;
+    private final int ID;
+
+    private PersistentDWGraph(PersistentIntMap<node_data> nodes, PersistentIntMap<PersistentIntMap<edge_data>> out,
+                              PersistentIntMap<PersistentIntMap<edge_data>> in, int edgeSize, int MC, int ID) {
+        this.nodes = nodes;
+        this.out = out;
+        this.in = in;
+        this.edgeSize = edgeSize;
+        this.MC = MC;
+        this.ID = ID;
+    }
+
+    /**
+     * Returns the empty graph.
+     *
+     * @return an empty graph.
+     */
+    public static PersistentDWGraph empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a persistent version of the given graph - its nodes are copied, the edges are copied by withEdge().
+     *
+     * @param g represents the given graph.
+     * @return the persistent graph.
+     */
+    public static PersistentDWGraph of(directed_weighted_graph g) {
+        if (g instanceof PersistentDWGraph) {
+            return (PersistentDWGraph) g;
+        }
+        PersistentDWGraph ans = EMPTY;
+        for (node_data n : g.getV()) {
+            ans = ans.withNode(new NodeData(n));
+        }
+        for (node_data n : g.getV()) {
+            Collection<edge_data> edges = g.getE(n.getKey());
+            if (edges == null) {
+                continue;
+            }
+            for (edge_data e : edges) {
+                ans = ans.withEdge(e.getSrc(), e.getDest(), e.getWeight());
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * Returns a version of this graph with the given node.
+     * Like DWGraph_DS.addNode(), a new NodeData gets the next free key.
+     *
+     * @param n represents the given node.
+     * @return the new version, this version if there is already a node with the key of n.
+     */
+    public PersistentDWGraph withNode(node_data n) {
+        if (n instanceof NodeData) {
+            ((NodeData) n).setKey(ID);
+        }
+        if (nodes.containsKey(n.getKey())) {
+            return this;
+        }
+        return new PersistentDWGraph(nodes.put(n.getKey(), n), out, in, edgeSize, MC + 1, Math.max(ID, n.getKey() + 1));
+    }
+
+    /**
+     * Returns a version of this graph with an edge with weight w between node src to node dest.
+     * Like DWGraph_DS.connect(), an existing edge is not changed.
+     *
+     * @param src represents the key of the source node of the edge.
+     * @param dest represents the key of the destination node of the edge.
+     * @param w represents the positive weight of the edge.
+     * @return the new version, this version if the edge can't be added or already exists.
+     */
+    public PersistentDWGraph withEdge(int src, int dest, double w) {
+        if (!nodes.containsKey(src) || !nodes.containsKey(dest) || src == dest || w < 0 || getEdge(src, dest) != null) {
+            return this;
+        }
+        edge_data e = new EdgeData(src, dest, w);
+        return new PersistentDWGraph(nodes, put(out, src, dest, e), put(in, dest, src, e), edgeSize + 1, MC + 1, ID);
+    }
+
+    /**
+     * Returns a version of this graph without the edge between node src to node dest.
+     *
+     * @param src represents the key of the source node of the edge.
+     * @param dest represents the key of the destination node of the edge.
+     * @return the new version, this version if there is no such edge.
+     */
+    public PersistentDWGraph withoutEdge(int src, int dest) {
+        if (getEdge(src, dest) == null) {
+            return this;
+        }
+        return new PersistentDWGraph(nodes, remove(out, src, dest), remove(in, dest, src), edgeSize - 1, MC + 1, ID);
+    }
+
+    /**
+     * Returns a version of this graph without the node with the given key and all the edges which start or end at it.
+     *
+     * @param key represents the key of the node.
+     * @return the new version, this version if there is no such node.
+     */
+    public PersistentDWGraph withoutNode(int key) {
+        if (!nodes.containsKey(key)) {
+            return this;
+        }
+        PersistentIntMap<PersistentIntMap<edge_data>> newOut = out;
+        PersistentIntMap<PersistentIntMap<edge_data>> newIn = in;
+        int removed = 0;
+        PersistentIntMap<edge_data> from = out.get(key);
+        if (from != null) {
+            for (edge_data e : from) {
+                newIn = remove(newIn, e.getDest(), key);
+                removed++;
+            }
+        }
+        PersistentIntMap<edge_data> to = in.get(key);
+        if (to != null) {
+            for (edge_data e : to) {
+                newOut = remove(newOut, e.getSrc(), key);
+                removed++;
+            }
+        }
+        return new PersistentDWGraph(nodes.remove(key), newOut.remove(key), newIn.remove(key),
+                edgeSize - removed, MC + removed + 1, ID);
+    }
+
+    @Override
+    public node_data getNode(int key) {
+        return nodes.get(key);
+    }
+
+    @Override
+    public edge_data getEdge(int src, int dest) {
+        PersistentIntMap<edge_data> edges = out.get(src);
+        return edges == null ? null : edges.get(dest);
+    }
+
+    /**
+     * Not supported - use withNode().
+     *
+     * @param n represents the given node.
+     */
+    @Override
+    public void addNode(node_data n) {
+        throw new UnsupportedOperationException("A persistent graph can't be changed, use withNode()");
+    }
+
+    /**
+     * Not supported - use withEdge().
+     *
+     * @param src represents the key of the source node.
+     * @param dest represents the key of the destination node.
+     * @param w represents the weight of the edge.
+     */
+    @Override
+    public void connect(int src, int dest, double w) {
+        throw new UnsupportedOperationException("A persistent graph can't be changed, use withEdge()");
+    }
+
+    @Override
+    public Collection<node_data> getV() {
+        return nodes.values();
+    }
+
+    @Override
+    public Collection<edge_data> getE(int node_id) {
+        PersistentIntMap<edge_data> edges = out.get(node_id);
+        return edges == null ? null : edges.values();
+    }
+
+    /**
+     * Not supported - use withoutNode().
+     *
+     * @param key represents the key of the node.
+     * @return nothing.
+     */
+    @Override
+    public node_data removeNode(int key) {
+        throw new UnsupportedOperationException("A persistent graph can't be changed, use withoutNode()");
+    }
+
+    /**
+     * Not supported - use withoutEdge().
+     *
+     * @param src represents the key of the source node.
+     * @param dest represents the key of the destination node.
+     * @return nothing.
+     */
+    @Override
+    public edge_data removeEdge(int src, int dest) {
+        throw new UnsupportedOperationException("A persistent graph can't be changed, use withoutEdge()");
+    }
+
+    @Override
+    public int nodeSize() {
+        return nodes.size();
+    }
+
+    @Override
+    public int edgeSize() {
+        return edgeSize;
+    }
+
+    /**
+     * Returns the number of changes made on the way from the empty graph to this version.
+     *
+     * @return MC.
+     */
+    @Override
+    public int getMC() {
+        return MC;
+    }
+
+    /**
+     * ToString method.
+     *
+     * @return String which represents the nodes of this graph by their keys and the edges out of each one of them.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (node_data n : nodes) {
+            if (sb.length() > 1) {
+                sb.append(" , ");
+            }
+            sb.append('(').append(n.getKey()).append(": {");
+            PersistentIntMap<edge_data> edges = out.get(n.getKey());
+            if (edges != null) {
+                boolean first = true;
+                for (edge_data e : edges) {
+                    sb.append(first ? "" : ", ").append(e.getDest()).append("- weight = ").append(e.getWeight());
+                    first = false;
+                }
+            }
+            sb.append("})");
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Equals method - like DWGraph_DS, equal to every graph with the same nodes and edges.
+     *
+     * @param o represents a given object.
+     * @return true if this graph and the given object are equal, false if not.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof directed_weighted_graph))
+            return false;
+        directed_weighted_graph that = (directed_weighted_graph) o;
+        if (nodeSize() != that.nodeSize() || edgeSize != that.edgeSize())
+            return false;
+        for (node_data ng : that.getV()) {
+            node_data nt = nodes.get(ng.getKey());
+            if (nt == null || !nt.equals(ng))
+                return false;
+            Collection<edge_data> thatE = that.getE(ng.getKey());
+            PersistentIntMap<edge_data> thisE = out.get(ng.getKey());
+            if ((thatE == null ? 0 : thatE.size()) != (thisE == null ? 0 : thisE.size()))
+                return false;
+            if (thatE == null)
+                continue;
+            for (edge_data e : thatE) {
+                edge_data et = thisE.get(e.getDest());
+                if (et == null || !e.equals(et))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * HashCode method - like DWGraph_DS, equal graphs have the same number of nodes and edges.
+     *
+     * @return the hash code of this graph.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeSize(), edgeSize);
+    }
+
+    /**
+     * Returns the given adjacency map with the edge a --> b in the inner map of a.
+     */
+    private static PersistentIntMap<PersistentIntMap<edge_data>> put(PersistentIntMap<PersistentIntMap<edge_data>> adj,
+                                                                     int a, int b, edge_data e) {
+        PersistentIntMap<edge_data> inner = adj.get(a);
+        if (inner == null) {
+            inner = PersistentIntMap.empty();
+        }
+        return adj.put(a, inner.put(b, e));
+    }
+
+    /**
+     * Returns the given adjacency map without b in the inner map of a (an empty inner map is removed).
+     */
+    private static PersistentIntMap<PersistentIntMap<edge_data>> remove(PersistentIntMap<PersistentIntMap<edge_data>> adj,
+                                                                        int a, int b) {
+        PersistentIntMap<edge_data> inner = adj.get(a);
+        if (inner == null) {
+            return adj;
+        }
+        inner = inner.remove(b);
+        return inner.isEmpty() ? adj.remove(a) : adj.put(a, inner);
+    }
+}
@@ -0,0 +1,297 @@
+package api;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a persistent (immutable) map from int keys to values -
+ * put() and remove() don't change the map, they return a new map which shares
+ * all the unchanged parts with the old one.
+ * The map is a trie of 32-way nodes on the bits of the key (5 bits in every level, the lowest first),
+ * every node keeps only its used slots (by a bitmap), and a key is kept in the highest level where it
+ * doesn't share the slot with another key. So get(), put() and remove() are O(log32(n)) (at most 7 levels),
+ * and put() and remove() copy only the nodes on the way to the key.
+ * A map is never changed, so it can be read by many threads without locks.
+ *
+ * @param <V> the type of the values.
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public final class PersistentIntMap<V> implements Iterable<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(new Node(0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <V> the type of the values.
+     * @return an empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     *
+     * @return size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true iff this map has no keys.
+     *
+     * @return true if the map is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key represents the given key.
+     * @return the value of key, null if none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            int bit = bit(key, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[node.index(bit)];
+            if (slot instanceof Entry) {
+                Entry e = (Entry) slot;
+                return e.key == key ? (V) e.value : null;
+            }
+            node = (Node) slot;
+        }
+    }
+
+    /**
+     * Returns true iff the given key is in this map.
+     *
+     * @param key represents the given key.
+     * @return true if key has a value.
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map with the mappings of this map and key --> value.
+     *
+     * @param key represents the given key.
+     * @param value represents the new value of key, not null.
+     * @return the new map, this map if key already has this value.
+     */
+    public PersistentIntMap<V> put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("null values are not supported");
+        }
+        V old = get(key);
+        if (old == value) {
+            return this;
+        }
+        return new PersistentIntMap<>(put(root, 0, new Entry(key, value)), old == null ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map with the mappings of this map except the given key.
+     *
+     * @param key represents the given key.
+     * @return the new map, this map if key is not in it.
+     */
+    public PersistentIntMap<V> remove(int key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentIntMap<>((Node) remove(root, 0, key), size - 1); // The root is never replaced by an entry.
+    }
+
+    /**
+     * Returns a collection view of the values of this map, ordered by the trie.
+     *
+     * @return the values.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return PersistentIntMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator over the values of this map.
+     *
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private final Node[] nodes = new Node[8];
+            private final int[] indexes = new int[8];
+            private int depth = 0;
+            private Entry next;
+
+            {
+                nodes[0] = root;
+                advance();
+            }
+
+            /**
+             * Moves to the next entry of the trie (depth first).
+             */
+            private void advance() {
+                next = null;
+                while (depth >= 0) {
+                    Node n = nodes[depth];
+                    if (indexes[depth] == n.slots.length) {
+                        depth--;
+                        continue;
+                    }
+                    Object slot = n.slots[indexes[depth]++];
+                    if (slot instanceof Entry) {
+                        next = (Entry) slot;
+                        return;
+                    }
+                    depth++;
+                    nodes[depth] = (Node) slot;
+                    indexes[depth] = 0;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                V ans = (V) next.value;
+                advance();
+                return ans;
+            }
+        };
+    }
+
+    /**
+     * Returns the node (a copy of the given node) with the given entry.
+     */
+    private static Node put(Node node, int shift, Entry entry) {
+        int bit = bit(entry.key, shift);
+        int i = node.index(bit);
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, i);
+            slots[i] = entry;
+            System.arraycopy(node.slots, i, slots, i + 1, node.slots.length - i);
+            return new Node(node.bitmap | bit, slots);
+        }
+        Object slot = node.slots[i];
+        Object replacement;
+        if (slot instanceof Entry) {
+            Entry old = (Entry) slot;
+            if (old.key == entry.key) {
+                replacement = entry;
+            } else {
+                replacement = put(new Node(bit(old.key, shift + BITS), new Object[]{old}), shift + BITS, entry);
+            }
+        } else {
+            replacement = put((Node) slot, shift + BITS, entry);
+        }
+        Object[] slots = node.slots.clone();
+        slots[i] = replacement;
+        return new Node(node.bitmap, slots);
+    }
+
+    /**
+     * Returns the node (a copy of the given node) without the given key,
+     * or the only entry left in it if it is not the root - so the entry moves up the trie.
+     */
+    private static Object remove(Node node, int shift, int key) {
+        int bit = bit(key, shift);
+        int i = node.index(bit);
+        Object slot = node.slots[i];
+        Object replacement = slot instanceof Entry ? null : remove((Node) slot, shift + BITS, key);
+        if (replacement == null) {
+            if (shift > 0 && node.slots.length == 2 && node.slots[1 - i] instanceof Entry) {
+                return node.slots[1 - i];
+            }
+            Object[] slots = new Object[node.slots.length - 1];
+            System.arraycopy(node.slots, 0, slots, 0, i);
+            System.arraycopy(node.slots, i + 1, slots, i, slots.length - i);
+            return new Node(node.bitmap & ~bit, slots);
+        }
+        if (shift > 0 && node.slots.length == 1 && replacement instanceof Entry) {
+            return replacement;
+        }
+        Object[] slots = node.slots.clone();
+        slots[i] = replacement;
+        return new Node(node.bitmap, slots);
+    }
+
+    /**
+     * Returns the bit of the slot of the given key in a node of the level of the given shift.
+     */
+    private static int bit(int key, int shift) {
+        return 1 << ((key >>> shift) & MASK);
+    }
+
+    /**
+     * A node of the trie - the bitmap of its used slots and their contents (an Entry or a Node).
+     */
+    private static final class Node {
+        private final int bitmap;
+        private final Object[] slots;
+
+        private Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * A key and its value.
+     */
+    private static final class Entry {
+        private final int key;
+        private final Object value;
+
+        private Entry(int key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
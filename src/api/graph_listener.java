@@ -0,0 +1,17 @@
+package api;
+
+import java.util.List;
+
+/**
+ * This interface represents a listener to the changes of a graph (see DWGraph_DS.addListener()).
+ * Outside a batch every change is reported on its own, right after it is made.
+ * The changes made inside a batch (DWGraph_DS.beginBatch() ... endBatch()) are reported together
+ * when the batch ends - an edge which was removed and added again in the batch is reported once as reweighted.
+ */
+public interface graph_listener {
+    /**
+     * Called after the graph was changed.
+     * @param events - the changes, by the order they were made (empty if the changes of a batch cancelled each other).
+     */
+    public void graphChanged(List<GraphEvent> events);
+}
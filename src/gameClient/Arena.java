@@ -2,10 +2,12 @@ package gameClient;
 
 import api.*;
 import Server.Game_Server_Ex2;
+import gameClient.util.Metrics;
 import gameClient.util.Range;
 import gameClient.util.Range2D;
 import gameClient.util.Range2Range;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class represents the arena of the game.
@@ -16,25 +18,61 @@ public class Arena {
 
     public static final double EPS1 = 0.001, EPS2 = EPS1 * EPS1, EPS = EPS2;
     private final dw_graph_algorithms graphAlgo;
+    private final PathTable paths;
+    private final EdgeIndex edges;
+    private final NodeStore nodes;
     private List<CL_Agent> agents;
     private List<CL_Pokemon> pokemons;
     private final game_service game;
     private final int level;
     private final int numAgents;
+    private final TimeToArrival timeToArrival;
+    private final AtomicReference<ArenaSnapshot> snapshot;
+    private final CommandBuffer commands;
 
     /**
-     * Constructor
+     * Constructor - plays the given level on the game server.
      *
      * @param level
      */
     public Arena(int level) {
+        this(Game_Server_Ex2.getServer(level), level);
+    }
+
+    /**
+     * Constructor - plays on the given game, e.g. a LocalGameService for games without a window.
+     * The data of the level is taken from LevelCache, so only the first game of a graph builds it.
+     *
+     * @param game represents the given game.
+     * @param level represents the level of the given game.
+     */
+    public Arena(game_service game, int level) {
+        this(game, level, LevelCache.get(game.getGraph()));
+    }
+
+    /**
+     * Constructor - plays on the given game, with the data of the level (graph, shortest paths, index of the edges)
+     * given by the caller - which may share it between many games of the same level.
+     *
+     * @param game represents the given game.
+     * @param level represents the level of the given game.
+     * @param data represents the data of the level, only read by this arena.
+     */
+    public Arena(game_service game, int level, LevelData data) {
         this.level = level;
         graphAlgo = new DWGraph_Algo();
-        game = Game_Server_Ex2.getServer(level);
+        graphAlgo.init(data.getGraph());
+        paths = data.getPaths();
+        edges = data.getEdges();
+        nodes = data.getNodes();
+        this.game = game;
         numAgents = jsonToObject.numOfAgentsByLevel(game.toString());
-        jsonToObject.loadGraph(game.getGraph(), graphAlgo.getGraph());
-        this.pokemons = jsonToObject.loadPokemon(game.getPokemons(), graphAlgo.getGraph());
+        this.pokemons = jsonToObject.loadPokemon(game.getPokemons(), graphAlgo.getGraph(), edges);
+        timeToArrival = new TimeToArrival(paths);
+        snapshot = new AtomicReference<>();
+        commands = new CommandBuffer();
         startPositionOfAgents();
+        publishSnapshot(0, 0);
     }
 
     /**
@@ -53,6 +91,15 @@ public class Arena {
         return graphAlgo;
     }
 
+    /**
+     * Returns the nodes of the graph of this game in arrays (read only), for loops over all the nodes.
+     *
+     * @return nodes.
+     */
+    public NodeStore getNodes() {
+        return nodes;
+    }
+
     /**
      * Returns the game in specific level.
      *
@@ -80,6 +127,36 @@ public class Arena {
         return pokemons;
     }
 
+    /**
+     * Returns the predictor of the times of arrival of the agents to the pokemons,
+     * updated on every call to movementStrategy().
+     *
+     * @return timeToArrival.
+     */
+    public TimeToArrival getTimeToArrival() {
+        return timeToArrival;
+    }
+
+    /**
+     * Returns the last snapshot published by the game thread.
+     *
+     * @return the last snapshot of this arena.
+     */
+    public ArenaSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Publishes a new immutable snapshot of the current agents and pokemons,
+     * should be called by the game thread at the end of every tick.
+     *
+     * @param score represents the current score of the game.
+     * @param moves represents the current number of moves of the game.
+     */
+    public void publishSnapshot(int score, int moves) {
+        snapshot.set(new ArenaSnapshot(level, score, moves, game.timeToEnd(), agents, pokemons));
+    }
+
     /**
      * This method places the agents before the game begins.
      */
@@ -90,6 +167,7 @@ public class Arena {
             if(pokemonWithHigherValue < 0){
                 int index = (int)(Math.random()*graphAlgo.getGraph().getV().size());
                 game.addAgent(index);
+                continue;
             }
             CL_Pokemon p = pokemons.get(pokemonWithHigherValue);
             game.addAgent(p.getEdge().getSrc());
@@ -102,6 +180,7 @@ public class Arena {
 
     /**
      * This method makes for each agent his first movement in this game.
+     * The decisions are sent to the game by flushCommands().
      */
     public void firstChooseNext(){
         int pokemonWithHigherValue = pokemons.size() - 1;
@@ -112,92 +191,185 @@ public class Arena {
                 if(e != null) {
                     Iterator<edge_data> itE = e.iterator();
                     edge_data e1 = itE.next();
-                    this.game.chooseNextEdge(a.getId(), e1.getDest());
+                    commands.add(a, e1.getDest());
                 }
             } else {
                 CL_Pokemon p = pokemons.get(pokemonWithHigherValue);
                 if ((agents.get(i).getSrc()) == p.getEdge().getSrc()) {
                     CL_Agent a = agents.get(i);
-                    //                System.out.println(p.getEdge().getDest());
-                    this.game.chooseNextEdge(a.getId(), p.getEdge().getDest());
-                    //                System.out.println(this.game.getAgents());
+                    commands.add(a, p.getEdge().getDest());
                     pokemonWithHigherValue--;
                     i = 0;
                 }
             }
         }
-        String jsonAgents = this.game.getAgents();
-        this.agents = jsonToObject.loadAgents(jsonAgents);
     }
 
     /**
      * This method implements an algorithm which chooses for each agent with dest == -1
      * (agent who has no destination at a given moment) his next destination during the game
      * depending the new pokemons list.
+     * The decisions are sent to the game by flushCommands().
      */
     public void movementStrategy() {
-        this.agents = jsonToObject.loadAgents(game.getAgents());
+        movementStrategy(null);
+    }
+
+    /**
+     * Like movementStrategy(), but commits the given plan which was computed ahead of time
+     * if the fresh state of the game is the predicted one, otherwise the plan is dropped.
+     *
+     * @param ahead represents the plan computed for this tick, may be null.
+     */
+    public void movementStrategy(TickPlan ahead) {
+        String jsonAgents = game.getAgents();
+        Metrics.count(Metrics.Counter.SERVER_READS);
+        this.agents = jsonToObject.loadAgents(jsonAgents);
         String jsonPokemons = this.game.getPokemons();
-        this.pokemons = jsonToObject.loadPokemon(jsonPokemons, this.graphAlgo.getGraph());
-        synchronized (this) {
-            directed_weighted_graph g = graphAlgo.getGraph();
-            List<node_data> shortestWayToPokemon = new LinkedList<>();
-            List<node_data> pathToPokemon = new LinkedList<>();
-            List<node_data> captured = new ArrayList<>();
-            edge_data e = null;
+        Metrics.count(Metrics.Counter.SERVER_READS);
+        this.pokemons = jsonToObject.loadPokemon(jsonPokemons, this.graphAlgo.getGraph(), edges);
+        timeToArrival.update(agents, pokemons);
+        if (ahead != null && ahead.matches(agents, pokemons)) {
+            Metrics.count(Metrics.Counter.PLANS_COMMITTED);
             for (CL_Agent a : agents) {
-                if (a.getDest() == -1) {
-                    for (CL_Pokemon p : pokemons) {
-                        e = p.getEdge();
-                        if (captured.contains(g.getNode(e.getSrc())) || captured.contains(g.getNode(e.getDest()))) {
-                            continue;
-                        }
-                        if (a.getSrc() == e.getSrc()) {
-                            this.game.chooseNextEdge(a.getId(), e.getDest());
-                            captured.add(g.getNode(e.getSrc()));
-                            captured.add(g.getNode(e.getDest()));
-                            break;
-                        }
-                        pathToPokemon = graphAlgo.shortestPath(a.getSrc(), e.getSrc());
-                        if ((shortestWayToPokemon.size() == 0) || (pathToPokemon.size() < shortestWayToPokemon.size())) {
-                            shortestWayToPokemon = pathToPokemon;
-                        }
+                int next = ahead.getCommands().get(a.getId());
+                if (next != -1) {
+                    commands.add(a, next);
+                }
+            }
+            return;
+        }
+        if (ahead != null) {
+            Metrics.count(Metrics.Counter.PLANS_DROPPED);
+        }
+        decide(agents, pokemons, commands);
+    }
+
+    /**
+     * Computes the decisions of the agents for the given state of the game, without sending them.
+     * Doesn't change the state of this arena, so it may run on another thread
+     * while the game thread waits for the next move.
+     *
+     * @param agents represents the (predicted) list of agents.
+     * @param pokemons represents the list of pokemons.
+     * @return the plan of the tick.
+     */
+    public TickPlan plan(List<CL_Agent> agents, List<CL_Pokemon> pokemons) {
+        CommandBuffer out = new CommandBuffer();
+        decide(agents, pokemons, out);
+        return new TickPlan(agents, pokemons, out);
+    }
+
+    /**
+     * Returns the agents as they are after the decisions of this tick -
+     * an agent with a command waiting is already on the edge to its next node.
+     *
+     * @return the list of agents with the destinations of their commands.
+     */
+    public List<CL_Agent> routedAgents() {
+        List<CL_Agent> ans = new ArrayList<>();
+        for (CL_Agent a : agents) {
+            int next = commands.get(a.getId());
+            if (a.getDest() == -1 && next != -1) {
+                ans.add(new CL_Agent(a.getId(), a.getValue(), a.getSrc(), next, a.getSpeed(), a.getPos()));
+            } else {
+                ans.add(a);
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * Predicts where the agents will be after the given number of milliseconds -
+     * an agent which reaches the end of its edge (or of the edge it was just directed to)
+     * will stand on the node and wait for a decision.
+     *
+     * @param delay represents the given number of milliseconds.
+     * @return the predicted list of agents.
+     */
+    public List<CL_Agent> predictAgents(long delay) {
+        List<CL_Agent> ans = new ArrayList<>();
+        directed_weighted_graph g = graphAlgo.getGraph();
+        for (CL_Agent a : agents) {
+            int src = a.getSrc();
+            int dest = a.getDest();
+            double arrival = timeToArrival.timeToNextNode(a);
+            if (dest == -1 && commands.get(a.getId()) != -1) {
+                dest = commands.get(a.getId());
+                arrival = g.getEdge(src, dest).getWeight() / a.getSpeed() * 1000;
+            }
+            if (dest != -1 && arrival <= delay) {
+                ans.add(new CL_Agent(a.getId(), a.getValue(), dest, -1, a.getSpeed(), g.getNode(dest).getLocation()));
+            } else {
+                ans.add(new CL_Agent(a.getId(), a.getValue(), src, dest, a.getSpeed(), a.getPos()));
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * The algorithm which chooses for each agent with dest == -1 his next destination,
+     * depending the pokemons list.
+     *
+     * @param agents represents the list of agents.
+     * @param pokemons represents the list of pokemons.
+     * @param out represents the buffer the decisions are added to.
+     */
+    private void decide(List<CL_Agent> agents, List<CL_Pokemon> pokemons, CommandBuffer out) {
+        directed_weighted_graph g = graphAlgo.getGraph();
+        List<node_data> shortestWayToPokemon = new LinkedList<>();
+        List<node_data> pathToPokemon = new LinkedList<>();
+        List<node_data> captured = new ArrayList<>();
+        edge_data e = null;
+        for (CL_Agent a : agents) {
+            if (a.getDest() == -1) {
+                for (CL_Pokemon p : pokemons) {
+                    e = p.getEdge();
+                    if (captured.contains(g.getNode(e.getSrc())) || captured.contains(g.getNode(e.getDest()))) {
+                        continue;
                     }
-                    if (shortestWayToPokemon.size() != 0) {
-                        this.game.chooseNextEdge(a.getId(), shortestWayToPokemon.get(1).getKey());
-                        captured.add(shortestWayToPokemon.get(1));
+                    if (a.getSrc() == e.getSrc()) {
+                        out.add(a, e.getDest());
                         captured.add(g.getNode(e.getSrc()));
                         captured.add(g.getNode(e.getDest()));
+                        break;
+                    }
+                    long t = Metrics.start();
+                    pathToPokemon = paths.shortestPath(a.getSrc(), e.getSrc());
+                    Metrics.stop(Metrics.Span.PATH, t);
+                    if ((shortestWayToPokemon.size() == 0) || (pathToPokemon.size() < shortestWayToPokemon.size())) {
+                        shortestWayToPokemon = pathToPokemon;
                     }
-                    //                } else {
+                }
+                if (shortestWayToPokemon.size() != 0) {
+                    out.add(a, shortestWayToPokemon.get(1).getKey());
+                    captured.add(shortestWayToPokemon.get(1));
+                    captured.add(g.getNode(e.getSrc()));
+                    captured.add(g.getNode(e.getDest()));
+                }
+                //                } else {
 
 
-                }
-                shortestWayToPokemon.clear();
             }
+            shortestWayToPokemon.clear();
         }
     }
 
-    private static Range2D GraphRange(directed_weighted_graph g) {
-        Iterator<node_data> itr = g.getV().iterator();
-        double x0=0,x1=0,y0=0,y1=0;
-        boolean first = true;
-        while(itr.hasNext()) {
-            geo_location p = itr.next().getLocation();
-            if(first) {
-                x0=p.x(); x1=x0;
-                y0=p.y(); y1=y0;
-                first = false;
-            }
-            else {
-                if(p.x()<x0) {x0=p.x();}
-                if(p.x()>x1) {x1=p.x();}
-                if(p.y()<y0) {y0=p.y();}
-                if(p.y()>y1) {y1=p.y();}
-            }
-        }
-        Range xr = new Range(x0,x1);
-        Range yr = new Range(y0,y1);
+    /**
+     * Sends the decisions of the agents of this tick to the game,
+     * should be called right before the next move.
+     *
+     * @return the number of commands which were sent.
+     */
+    public int flushCommands() {
+        return commands.flush(game);
+    }
+
+    private static Range2D GraphRange(NodeStore nodes) {
+        double[] box = new double[4];
+        nodes.bounds(box);
+        Range xr = new Range(box[0],box[2]);
+        Range yr = new Range(box[1],box[3]);
         return new Range2D(xr,yr);
     }
 
@@ -209,7 +381,18 @@ public class Arena {
      * @return
      */
     public static Range2Range w2f(directed_weighted_graph g, Range2D frame) {
-        Range2D world = GraphRange(g);
+        return w2f(NodeStore.of(g), frame);
+    }
+
+    /**
+     * Like w2f(g, frame), by the nodes of the graph in arrays (see getNodes()).
+     *
+     * @param nodes represents the nodes of the graph.
+     * @param frame represents the frame of the window.
+     * @return the conversion from the bounding box of the nodes to the frame.
+     */
+    public static Range2Range w2f(NodeStore nodes, Range2D frame) {
+        Range2D world = GraphRange(nodes);
         Range2Range ans = new Range2Range(world, frame);
         return ans;
     }
@@ -0,0 +1,95 @@
+package gameClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents an immutable picture of the arena at the end of a single tick of the game.
+ * It is published by the game thread and read by the rendering thread,
+ * so the rendering never sees a list that is half updated.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public final class ArenaSnapshot {
+
+    private final int level;
+    private final int score;
+    private final int moves;
+    private final long timeToEnd;
+    private final List<CL_Agent> agents;
+    private final List<CL_Pokemon> pokemons;
+
+    /**
+     * Constructor - copies the given lists.
+     *
+     * @param level represents the level of the game.
+     * @param score represents the score of the game.
+     * @param moves represents the number of moves made in the game.
+     * @param timeToEnd represents the number of milliseconds till the game is over.
+     * @param agents represents the list of agents.
+     * @param pokemons represents the list of pokemons.
+     */
+    public ArenaSnapshot(int level, int score, int moves, long timeToEnd, List<CL_Agent> agents, List<CL_Pokemon> pokemons) {
+        this.level = level;
+        this.score = score;
+        this.moves = moves;
+        this.timeToEnd = timeToEnd;
+        this.agents = agents == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(agents));
+        this.pokemons = pokemons == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(pokemons));
+    }
+
+    /**
+     * Returns the level of the game.
+     *
+     * @return level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the score of the game.
+     *
+     * @return score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the number of moves made in the game.
+     *
+     * @return moves.
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the number of milliseconds till the game is over.
+     *
+     * @return timeToEnd.
+     */
+    public long getTimeToEnd() {
+        return timeToEnd;
+    }
+
+    /**
+     * Returns an unmodifiable list of the agents.
+     *
+     * @return agents.
+     */
+    public List<CL_Agent> getAgents() {
+        return agents;
+    }
+
+    /**
+     * Returns an unmodifiable list of the pokemons.
+     *
+     * @return pokemons.
+     */
+    public List<CL_Pokemon> getPokemons() {
+        return pokemons;
+    }
+}
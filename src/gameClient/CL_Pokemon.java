@@ -1,6 +1,7 @@
 package gameClient;
 
 import api.*;
+import gameClient.util.Metrics;
 import java.util.Comparator;
 import java.util.Iterator;
 
@@ -27,10 +28,27 @@ public class CL_Pokemon {
      * @param g
      */
     public CL_Pokemon(double value, int type, geo_location pos, directed_weighted_graph g){
+        this(value, type, pos, g, null);
+    }
+
+    /**
+     * Constructor - finds the edge of the pokemon with the given spatial index of the edges of g.
+     *
+     * @param value represents the value of the pokemon.
+     * @param type represents the type of the pokemon.
+     * @param pos represents the position of the pokemon.
+     * @param g represents the graph of the game.
+     * @param index represents the index of the edges of g, null for checking all the edges.
+     */
+    public CL_Pokemon(double value, int type, geo_location pos, directed_weighted_graph g, EdgeIndex index){
         this.value = value;
         this.type = type;
         this.pos = pos;
-        updateEdge(g);
+        if (index != null) {
+            updateEdge(g, index);
+        } else {
+            updateEdge(g);
+        }
     }
 
     /**
@@ -78,7 +96,7 @@ public class CL_Pokemon {
      * @param g represents the given graph.
      */
     private void updateEdge(directed_weighted_graph g) {
-        //	oop_edge_data ans = null;
+        long t = Metrics.start();
         Iterator<node_data> it1 = g.getV().iterator();
         while(it1.hasNext()) {
             node_data v = it1.next();
@@ -91,6 +109,23 @@ public class CL_Pokemon {
                 }
             }
         }
+        Metrics.stop(Metrics.Span.SNAP, t);
+    }
+
+    /**
+     * Like updateEdge(g), but checks only the edges near the pokemon by the given index.
+     *
+     * @param g represents the given graph.
+     * @param index represents the index of the edges of g.
+     */
+    private void updateEdge(directed_weighted_graph g, EdgeIndex index) {
+        long t = Metrics.start();
+        for (edge_data e : index.candidates(pos)) {
+            if (isOnEdge(e, g)) {
+                this.setEdge(e);
+            }
+        }
+        Metrics.stop(Metrics.Span.SNAP, t);
     }
 
     /**
@@ -0,0 +1,93 @@
+package gameClient;
+
+import api.game_service;
+import gameClient.util.Metrics;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class collects the decisions of all the agents during a tick
+ * and sends them to the game together, right before the next move.
+ * A command which doesn't change the destination of the agent is dropped,
+ * and only the first command given to an agent in a tick is kept - like the server,
+ * which ignores commands to an agent that already has a destination.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class CommandBuffer {
+
+    private final LinkedHashMap<Integer, Integer> commands;
+
+    /**
+     * Default constructor.
+     */
+    public CommandBuffer() {
+        this.commands = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds a command which directs the given agent to the given next node.
+     *
+     * @param a represents the given agent.
+     * @param next represents the key of the next node.
+     * @return true if the command was added, false if it was dropped.
+     */
+    public synchronized boolean add(CL_Agent a, int next) {
+        if (a.getDest() == next || commands.containsKey(a.getId())) {
+            return false;
+        }
+        commands.put(a.getId(), next);
+        return true;
+    }
+
+    /**
+     * Returns true iff a command was already given to the agent with the given id in this tick.
+     *
+     * @param id represents the id of the agent.
+     * @return true if the agent has a command waiting.
+     */
+    public synchronized boolean contains(int id) {
+        return commands.containsKey(id);
+    }
+
+    /**
+     * Returns the next node of the command given to the agent with the given id in this tick.
+     *
+     * @param id represents the id of the agent.
+     * @return the key of the next node, -1 if the agent has no command waiting.
+     */
+    public synchronized int get(int id) {
+        Integer next = commands.get(id);
+        return next == null ? -1 : next;
+    }
+
+    /**
+     * Returns the number of commands waiting to be sent.
+     *
+     * @return number of commands.
+     */
+    public synchronized int size() {
+        return commands.size();
+    }
+
+    /**
+     * Sends all the commands to the given game and clears this buffer.
+     *
+     * @param game represents the given game.
+     * @return the number of commands which were sent.
+     */
+    public synchronized int flush(game_service game) {
+        int n = commands.size();
+        if (n == 0) {
+            return 0;
+        }
+        long t = Metrics.start();
+        for (Map.Entry<Integer, Integer> c : commands.entrySet()) {
+            game.chooseNextEdge(c.getKey(), c.getValue());
+            Metrics.count(Metrics.Counter.SERVER_COMMANDS);
+        }
+        Metrics.stop(Metrics.Span.CHOOSE, t);
+        commands.clear();
+        return n;
+    }
+}
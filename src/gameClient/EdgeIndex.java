@@ -0,0 +1,199 @@
+package gameClient;
+
+import api.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents a spatial index of the edges of a graph - a grid over the bounding box of the nodes,
+ * where every cell keeps the edges which pass near it.
+ * Finding the edge a pokemon stands on then checks only the edges of the cell of the pokemon
+ * instead of all the edges of the graph.
+ * The edges of a cell are kept by the order of the iteration over the graph, so the first or last edge
+ * found in a cell is the same edge a full iteration over the graph would find.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class EdgeIndex {
+
+    private final double x0, y0, cellW, cellH;
+    private final int cols, rows;
+    private final List<edge_data>[] cells;
+
+    /**
+     * Constructor - indexes all the edges of the given graph, which must not be changed afterwards.
+     *
+     * @param g represents the given graph.
+     */
+    public EdgeIndex(directed_weighted_graph g) {
+        this(g, NodeStore.of(g));
+    }
+
+    /**
+     * Constructor - indexes all the edges of the given graph by the locations of its nodes in the given store
+     * (read from its arrays, without the node objects).
+     *
+     * @param g represents the given graph, must not be changed afterwards.
+     * @param nodes represents the nodes of g.
+     */
+    @SuppressWarnings("unchecked")
+    public EdgeIndex(directed_weighted_graph g, NodeStore nodes) {
+        double[] box = new double[4];
+        nodes.bounds(box);
+        double minX = box[0], minY = box[1], maxX = box[2], maxY = box[3];
+        int side = Math.max(1, (int) Math.ceil(Math.sqrt(g.edgeSize())));
+        this.x0 = minX;
+        this.y0 = minY;
+        this.cols = side;
+        this.rows = side;
+        this.cellW = maxX > minX ? (maxX - minX) / side : 1;
+        this.cellH = maxY > minY ? (maxY - minY) / side : 1;
+        this.cells = (List<edge_data>[]) new List<?>[cols * rows];
+        for (int i = 0; i < nodes.size(); i++) {
+            Collection<edge_data> out = g.getE(nodes.key(i));
+            if (out == null) {
+                continue;
+            }
+            for (edge_data e : out) {
+                add(e, nodes, i, nodes.indexOf(e.getDest()));
+            }
+        }
+    }
+
+    /**
+     * Constructor - an index which was read by readFrom().
+     */
+    private EdgeIndex(double x0, double y0, double cellW, double cellH, int cols, int rows, List<edge_data>[] cells) {
+        this.x0 = x0;
+        this.y0 = y0;
+        this.cellW = cellW;
+        this.cellH = cellH;
+        this.cols = cols;
+        this.rows = rows;
+        this.cells = cells;
+    }
+
+    /**
+     * Returns the edges which pass near the given position - every edge a pokemon at the given position
+     * may stand on is in the returned list.
+     *
+     * @param p represents the given position.
+     * @return the edges near p, by the order of the iteration over the graph.
+     */
+    public List<edge_data> candidates(geo_location p) {
+        List<edge_data> ans = cells[row(p.y()) * cols + col(p.x())];
+        return ans == null ? Collections.emptyList() : ans;
+    }
+
+    /**
+     * Returns the number of bytes writeTo() writes.
+     *
+     * @return the size of this index in bytes.
+     */
+    public int byteSize() {
+        int ans = 40 + cells.length * 4;
+        for (List<edge_data> c : cells) {
+            ans += c == null ? 0 : c.size() * 8;
+        }
+        return ans;
+    }
+
+    /**
+     * Writes this index to the given buffer, from its position - the grid,
+     * and then for every cell the number of its edges and the source and destination of each edge.
+     *
+     * @param out represents the given buffer, with at least byteSize() bytes remaining.
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putDouble(x0).putDouble(y0).putDouble(cellW).putDouble(cellH);
+        out.putInt(cols).putInt(rows);
+        for (List<edge_data> c : cells) {
+            out.putInt(c == null ? 0 : c.size());
+            if (c != null) {
+                for (edge_data e : c) {
+                    out.putInt(e.getSrc()).putInt(e.getDest());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an index written by writeTo() from the given buffer, from its position.
+     *
+     * @param g represents the indexed graph.
+     * @param in represents the given buffer, its position is moved to the end of the index.
+     * @return the index, null if it doesn't match the edges of g.
+     */
+    @SuppressWarnings("unchecked")
+    public static EdgeIndex readFrom(directed_weighted_graph g, ByteBuffer in) {
+        double x0 = in.getDouble(), y0 = in.getDouble(), cellW = in.getDouble(), cellH = in.getDouble();
+        int cols = in.getInt(), rows = in.getInt();
+        if (cols <= 0 || rows <= 0 || (long) cols * rows * 4 > in.remaining()) {
+            return null;
+        }
+        List<edge_data>[] cells = (List<edge_data>[]) new List<?>[cols * rows];
+        for (int i = 0; i < cells.length; i++) {
+            int size = in.getInt();
+            if (size < 0 || (long) size * 8 > in.remaining()) {
+                return null;
+            }
+            if (size == 0) {
+                continue;
+            }
+            cells[i] = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                edge_data e = g.getEdge(in.getInt(), in.getInt());
+                if (e == null) {
+                    return null;
+                }
+                cells[i].add(e);
+            }
+        }
+        return new EdgeIndex(x0, y0, cellW, cellH, cols, rows, cells);
+    }
+
+    /**
+     * Adds the given edge to all the cells its surrounding box touches.
+     * A point is on an edge (by CL_Pokemon) if the sum of its distances to the ends of the edge is less than
+     * the length of the edge plus EPS, such points are at most sqrt(EPS * (length + EPS)) from the edge.
+     *
+     * @param e represents the given edge.
+     * @param nodes represents the nodes of the graph.
+     * @param s represents the index of the source of e in nodes.
+     * @param d represents the index of the destination of e in nodes.
+     */
+    private void add(edge_data e, NodeStore nodes, int s, int d) {
+        double sx = nodes.x(s), sy = nodes.y(s), dx = nodes.x(d), dy = nodes.y(d);
+        double lx = sx - dx, ly = sy - dy, lz = nodes.z(s) - nodes.z(d);
+        double length = Math.sqrt(lx * lx + ly * ly + lz * lz); // Like GeoLocation.distance().
+        double margin = Math.sqrt(CL_Pokemon.EPS * (length + CL_Pokemon.EPS)) + CL_Pokemon.EPS;
+        int c0 = col(Math.min(sx, dx) - margin), c1 = col(Math.max(sx, dx) + margin);
+        int r0 = row(Math.min(sy, dy) - margin), r1 = row(Math.max(sy, dy) + margin);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int i = r * cols + c;
+                if (cells[i] == null) {
+                    cells[i] = new ArrayList<>(2);
+                }
+                cells[i].add(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the column of the given x, positions outside the grid belong to its border cells.
+     */
+    private int col(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor((x - x0) / cellW)));
+    }
+
+    /**
+     * Returns the row of the given y, positions outside the grid belong to its border cells.
+     */
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - y0) / cellH)));
+    }
+}
@@ -2,6 +2,8 @@ package gameClient;
 
 import Gui.Frame;
 import Gui.loginPanel;
+import gameClient.util.Metrics;
+import java.io.IOException;
 
 /**
  * This class contains the "main" method which runs the whole project.
@@ -10,10 +12,30 @@ import Gui.loginPanel;
  */
 public class Ex2 {
 
+    /**
+     * Runs the game.
+     * With no arguments - opens the login window,
+     * with "id level" - logs in and plays the given level on the game server,
+     * with "headless level [seed]" - plays the given level on a local game without a window.
+     *
+     * @param args
+     */
     public static void main(String[] args){
         if(args.length == 0){
             loginPanel p = new loginPanel();
         }
+        else if(args[0].equals("headless")) {
+            int level = Integer.parseInt(args[1]);
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+            try {
+                Arena catchThemAll = new Arena(LocalGameService.forLevel(level, seed), level);
+                new GamePlay(catchThemAll, null).run();
+                System.out.println(catchThemAll.gatGame());
+                Metrics.dump(System.out);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
         else {
             Arena catchThemAll = new Arena(Integer.parseInt(args[1]));
             Frame f = new Frame(catchThemAll);
@@ -2,6 +2,13 @@ package gameClient;
 
 import Gui.Frame;
 import api.*;
+import gameClient.util.Metrics;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class manages the processes of the game.
@@ -9,21 +16,52 @@ import api.*;
  * @authors Liel.Vaknin & Renana.Levy.
  */
 public class GamePlay implements Runnable{
+    private static final ExecutorService PLANNER = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+        Thread t = new Thread(r, "planner");
+        t.setDaemon(true);
+        return t;
+    });
     private final Arena arena;
     private Frame frame;
     private final game_service game;
-    private int dt;
-    private int counter; // Counts the number of times that the score didn't update.
+    private final MoveScheduler scheduler;
     private int score;
-    private int lastScore;
+    private int moves;
+    private int ticks;
+    private boolean pipelined;
+    private Future<TickPlan> ahead; // The plan of the next tick, computed while waiting for the move.
+    private AtomicBoolean aheadClaimed;
 
+    /**
+     * Constructor.
+     *
+     * @param a represents the arena of the game.
+     * @param f represents the window of the game, null for a game without a window.
+     */
     public GamePlay(Arena a, Frame f){
         this.arena = a;
         this.frame = f;
         this.game = a.gatGame();
-        this.dt = 150;
-        this.counter = 0;
-        this.lastScore = 0;
+        this.scheduler = new MoveScheduler(a.getTimeToArrival(), game);
+        this.pipelined = !(game instanceof LocalGameService); // A local game doesn't wait for its moves.
+    }
+
+    /**
+     * Allows turning off (or on) the planning of the next tick while waiting for the move.
+     *
+     * @param pipelined represents true for planning ahead.
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Allows changing the maximal number of moves made in a second.
+     *
+     * @param maxMovesPerSecond represents the new maximal number of moves in a second.
+     */
+    public void setMaxMovesPerSecond(int maxMovesPerSecond) {
+        scheduler.setMaxMovesPerSecond(maxMovesPerSecond);
     }
 
     @Override
@@ -31,49 +69,124 @@ public class GamePlay implements Runnable{
         arena.gatGame().startGame();
         arena.firstChooseNext();
         while (game.isRunning()) {
-            score = jsonToObject.score(arena.gatGame().toString());
-            if (score != lastScore) {
-                lastScore = score;
-                counter = 0;
-            }
-            counter++;
-            if (counter >= 15 && counter < 25) {
-                try {
-                    game.move();
-                    Thread.sleep(dt - ((counter/2)+30));
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            } else if (counter >= 25){
-                try {
-                    game.move();
-                    Thread.sleep(dt - ((counter/2)+40));
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            } else {
-                try {
-                    for (int i = 0; i < 1; i++) {
-                        game.move();
-                    }
-                    Thread.sleep(dt);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+            try {
+                long tick = Metrics.start();
+                arena.flushCommands();
+                long t = Metrics.start();
+                game.move();
+                Metrics.stop(Metrics.Span.MOVE, t);
+                Metrics.count(Metrics.Counter.SERVER_MOVES);
+                String info = game.toString();
+                Metrics.count(Metrics.Counter.SERVER_READS);
+                score = jsonToObject.score(info);
+                moves = jsonToObject.moves(info);
+                move(takePlan());
+                ticks++;
+                Metrics.stop(Metrics.Span.TICK, tick);
+                long delay = scheduler.nextDelay(arena.routedAgents(), arena.getPokemons(), game.timeToEnd());
+                if (pipelined) {
+                    planAhead(delay);
                 }
+                scheduler.pause(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             }
-            move();
         }
-        this.frame.update(score);
+        try {
+            takePlan();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         game.stopGame();
-        System.out.println(game);
+        String info = game.toString();
+        score = jsonToObject.score(info);
+        moves = jsonToObject.moves(info);
+        this.arena.publishSnapshot(score, moves);
+        if (this.frame != null) {
+            this.frame.stopRendering();
+            System.out.println(game);
+            Metrics.dump(System.out);
+        }
+    }
+
+    /**
+     * Returns the score of the game, final after run() returns.
+     *
+     * @return score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the number of moves made in the game, final after run() returns.
+     *
+     * @return moves.
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the number of ticks (move and strategy rounds) played.
+     *
+     * @return ticks.
+     */
+    public int getTicks() {
+        return ticks;
     }
 
     public void move(){
-//        System.out.println(game.getAgents());
-//        System.out.println(this.arena.getAgents().get(0).getDest());
-        this.arena.movementStrategy();
-//        System.out.println(this.arena.getAgents().get(0).getDest());
-//        System.out.println(game);
-        this.frame.update(score);
+        move(null);
+    }
+
+    /**
+     * Chooses the next edges of the agents, using the given plan if it is still valid,
+     * and publishes the new state of the arena.
+     *
+     * @param plan represents the plan computed ahead for this tick, may be null.
+     */
+    private void move(TickPlan plan){
+        this.arena.movementStrategy(plan);
+        this.arena.publishSnapshot(score, moves);
+    }
+
+    /**
+     * Starts planning the next tick on the planner threads, from the positions the agents
+     * are predicted to have after the given delay.
+     *
+     * @param delay represents the time in milliseconds until the next move.
+     */
+    private void planAhead(long delay) {
+        List<CL_Agent> predicted = arena.predictAgents(delay);
+        List<CL_Pokemon> pokemons = arena.getPokemons();
+        AtomicBoolean claimed = new AtomicBoolean();
+        aheadClaimed = claimed;
+        ahead = PLANNER.submit(() -> claimed.compareAndSet(false, true) ? arena.plan(predicted, pokemons) : null);
+    }
+
+    /**
+     * Returns the plan computed ahead for this tick.
+     * A plan which didn't start yet is skipped, a plan which is being computed is waited for -
+     * so the planner never uses the graph together with the game thread.
+     *
+     * @return the plan, null if there is none.
+     * @throws InterruptedException if the game thread was interrupted while waiting.
+     */
+    private TickPlan takePlan() throws InterruptedException {
+        if (ahead == null) {
+            return null;
+        }
+        TickPlan plan = null;
+        if (!aheadClaimed.compareAndSet(false, true)) {
+            try {
+                plan = ahead.get();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+        ahead = null;
+        return plan;
     }
-}
\ No newline at end of file
+}
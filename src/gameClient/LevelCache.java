@@ -0,0 +1,91 @@
+package gameClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class caches the data of the levels (LevelData) for the whole process,
+ * by the content of the graph - two games with the same graph JSON share the same frozen graph,
+ * shortest paths and index of the edges, so a new game of a known level doesn't build them again.
+ * A level which is not in the cache is read from the LevelStore (or built if the store is off).
+ * The least recently used level is evicted when the cache is full
+ * (the size is set by -Dex2.levelCache=N, 16 by default).
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class LevelCache {
+
+    public static final int CAPACITY = Integer.getInteger("ex2.levelCache", 16);
+    private static final LinkedHashMap<String, LevelData> cache = new LinkedHashMap<String, LevelData>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LevelData> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /**
+     * Returns the data of the level of the given graph, builds it if it is not in the cache.
+     * The data is built outside the lock, so games of other levels don't wait for it -
+     * if two threads build the same level, the first one to finish is kept.
+     *
+     * @param json represents the JSON String of the graph, as returned by game_service.getGraph().
+     * @return the shared data of the level.
+     */
+    public static LevelData get(String json) {
+        String key = hash(json);
+        synchronized (cache) {
+            LevelData data = cache.get(key);
+            if (data != null) {
+                return data;
+            }
+        }
+        LevelStore store = LevelStore.getDefault();
+        LevelData data = store != null ? store.load(json) : LevelData.load(json);
+        synchronized (cache) {
+            LevelData old = cache.putIfAbsent(key, data);
+            return old != null ? old : data;
+        }
+    }
+
+    /**
+     * Returns the number of levels in the cache.
+     *
+     * @return size of the cache.
+     */
+    public static int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Removes all the levels from the cache.
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Returns the SHA-256 of the given JSON String in hex, the key of the graph in the cache.
+     *
+     * @param json represents the given JSON String.
+     * @return the hash of json.
+     */
+    public static String hash(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JVM has SHA-256.
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package gameClient;
+
+import api.*;
+
+/**
+ * This class represents the data of a level which doesn't change during a game -
+ * the frozen graph, its nodes in arrays (NodeStore), the table of its shortest paths and the spatial index of its edges.
+ * It is only read after it is built, so many games of the same level (each with its own Arena)
+ * may share one instance from different threads (see LevelCache).
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class LevelData {
+
+    private final directed_weighted_graph graph;
+    private final NodeStore nodes;
+    private final PathTable paths;
+    private final EdgeIndex edges;
+
+    /**
+     * Constructor.
+     *
+     * @param graph represents the graph of the level, must not be changed afterwards.
+     */
+    public LevelData(directed_weighted_graph graph) {
+        this.graph = graph instanceof FrozenDWGraph ? graph : new FrozenDWGraph(graph);
+        this.nodes = NodeStore.of(this.graph);
+        this.paths = new PathTable(this.graph, NodeIndex.bfs(this.graph)); // The rows of neighbours are near.
+        this.edges = new EdgeIndex(this.graph, nodes);
+    }
+
+    /**
+     * Constructor - from parts which were already built (e.g. read by LevelStore).
+     *
+     * @param graph represents the frozen graph of the level.
+     * @param paths represents the shortest paths of the graph.
+     * @param edges represents the index of the edges of the graph.
+     */
+    public LevelData(FrozenDWGraph graph, PathTable paths, EdgeIndex edges) {
+        this.graph = graph;
+        this.nodes = NodeStore.of(graph);
+        this.paths = paths;
+        this.edges = edges;
+    }
+
+    /**
+     * Builds the data of a level from the JSON String returned by game_service.getGraph().
+     *
+     * @param json represents the JSON String of the graph.
+     * @return the data of the level.
+     */
+    public static LevelData load(String json) {
+        return new LevelData(loadGraph(json));
+    }
+
+    /**
+     * Builds the frozen graph of a level from the JSON String returned by game_service.getGraph().
+     *
+     * @param json represents the JSON String of the graph.
+     * @return the frozen graph.
+     */
+    public static FrozenDWGraph loadGraph(String json) {
+        directed_weighted_graph g = new DWGraph_DS();
+        jsonToObject.loadGraph(json, g);
+        return new FrozenDWGraph(g);
+    }
+
+    /**
+     * Returns the graph of this level.
+     *
+     * @return graph.
+     */
+    public directed_weighted_graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the nodes of the graph of this level, in arrays - the order of the graph's getV().
+     * Should only be read, like the graph.
+     *
+     * @return nodes.
+     */
+    public NodeStore getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the shortest paths between all the nodes of the graph of this level.
+     *
+     * @return paths.
+     */
+    public PathTable getPaths() {
+        return paths;
+    }
+
+    /**
+     * Returns the spatial index of the edges of the graph of this level.
+     *
+     * @return edges.
+     */
+    public EdgeIndex getEdges() {
+        return edges;
+    }
+}
@@ -0,0 +1,162 @@
+package gameClient;
+
+import api.FrozenDWGraph;
+import api.PathTable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class keeps the precomputed data of the levels in files of a local directory,
+ * so a new process doesn't compute again the data of a graph it already saw.
+ * The file of a graph is named by the SHA-256 of its JSON (see LevelCache.hash()) and contains,
+ * in a binary form which is memory mapped when read:
+ *     magic, version, 8 bytes of padding,
+ *     the PathTable (all pairs distances, next nodes and strongly connected components),
+ *     the EdgeIndex.
+ * The directory is set by -Dex2.levelStore=DIR (the temp directory by default), -Dex2.levelStore=off
+ * turns the store off. A file which can't be read or doesn't match the graph is built and written again.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class LevelStore {
+
+    private static final int MAGIC = 0x4558324c; // "EX2L"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final LevelStore DEFAULT = createDefault();
+    private final Path dir;
+
+    /**
+     * Constructor.
+     *
+     * @param dir represents the directory of the files.
+     */
+    public LevelStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Returns the store of the directory set by -Dex2.levelStore.
+     *
+     * @return the default store, null if the store is off.
+     */
+    public static LevelStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the directory of the files of this store.
+     *
+     * @return dir.
+     */
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * Returns the data of the level of the given graph - read from its file if there is one,
+     * otherwise built and written to a new file.
+     * A failure to write the file is ignored, the data is still returned.
+     *
+     * @param json represents the JSON String of the graph, as returned by game_service.getGraph().
+     * @return the data of the level.
+     */
+    public LevelData load(String json) {
+        Path file = dir.resolve(LevelCache.hash(json) + ".lvl");
+        FrozenDWGraph g = LevelData.loadGraph(json);
+        if (Files.isRegularFile(file)) {
+            try {
+                LevelData data = read(g, file);
+                if (data != null) {
+                    return data;
+                }
+            } catch (IOException | RuntimeException e) {
+                // A broken file is written again below.
+            }
+        }
+        LevelData data = new LevelData(g);
+        try {
+            write(data, file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return data;
+    }
+
+    /**
+     * Reads the data of the given graph from the given file.
+     *
+     * @param g represents the graph of the level.
+     * @param file represents the given file.
+     * @return the data of the level, null if the file doesn't match the graph.
+     * @throws IOException if the file could not be read.
+     */
+    private static LevelData read(FrozenDWGraph g, Path file) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()); // Stays valid after the channel is closed.
+        }
+        if (buf.remaining() < HEADER || buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+            return null;
+        }
+        buf.position(HEADER);
+        PathTable paths = PathTable.readFrom(g, buf);
+        if (paths == null) {
+            return null;
+        }
+        EdgeIndex edges = EdgeIndex.readFrom(g, buf);
+        if (edges == null) {
+            return null;
+        }
+        return new LevelData(g, paths, edges);
+    }
+
+    /**
+     * Writes the given data to the given file - to a temporary file which is then moved,
+     * so other processes never see a half written file.
+     *
+     * @param data represents the given data.
+     * @param file represents the given file.
+     * @throws IOException if the file could not be written.
+     */
+    private static void write(LevelData data, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + data.getPaths().byteSize() + data.getEdges().byteSize());
+        buf.putInt(MAGIC).putInt(VERSION).putLong(0);
+        data.getPaths().writeTo(buf);
+        data.getEdges().writeTo(buf);
+        buf.flip();
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buf.hasRemaining()) {
+                    ch.write(buf);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Creates the store of the directory set by -Dex2.levelStore.
+     */
+    private static LevelStore createDefault() {
+        String dir = System.getProperty("ex2.levelStore");
+        if ("off".equals(dir)) {
+            return null;
+        }
+        if (dir == null) {
+            return new LevelStore(Paths.get(System.getProperty("java.io.tmpdir"), "ex2-levels"));
+        }
+        return new LevelStore(Paths.get(dir));
+    }
+}
@@ -0,0 +1,349 @@
+package gameClient;
+
+import api.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class is an in-process implementation of the game server, used for running games
+ * without a window and without network, faster than real time.
+ * The game has its own clock - the time passes only through sleep(ms), so a game of 30 seconds
+ * takes only the time needed by the client's algorithm.
+ * The agents move along the edges in their speed (an edge with weight w takes w/speed seconds),
+ * a pokemon is caught when an agent passes its position, and then a new pokemon is placed on a random edge.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class LocalGameService implements game_service {
+
+    private static final long serialVersionUID = 1L;
+    public static final int NUM_OF_GRAPHS = 6;
+    public static final long SHORT_GAME = 30000, LONG_GAME = 60000;
+    private final String graphJson;
+    private final String graphName;
+    private final directed_weighted_graph graph;
+    private final int level;
+    private final int numAgents;
+    private final int numPokemons;
+    private final long duration;
+    private final Random random;
+    private final List<Agent> agents;
+    private final List<Pokemon> pokemons;
+    private boolean started;
+    private boolean running;
+    private long clock;
+    private long lastMove;
+    private int moves;
+    private double grade;
+
+    /**
+     * Constructor.
+     *
+     * @param graphJson represents the graph of the game as a JSON String (the format of the files in data).
+     * @param graphName represents the name of the graph, reported by toString().
+     * @param level represents the level of the game.
+     * @param numAgents represents the number of agents in the game.
+     * @param numPokemons represents the number of pokemons in the game at every moment.
+     * @param duration represents the length of the game in milliseconds.
+     * @param seed represents the seed of the random placement of the pokemons.
+     */
+    public LocalGameService(String graphJson, String graphName, int level, int numAgents, int numPokemons, long duration, long seed) {
+        this.graphJson = graphJson;
+        this.graphName = graphName;
+        this.graph = new DWGraph_DS();
+        jsonToObject.loadGraph(graphJson, graph);
+        this.level = level;
+        this.numAgents = numAgents;
+        this.numPokemons = numPokemons;
+        this.duration = duration;
+        this.random = new Random(seed);
+        this.agents = new ArrayList<>();
+        this.pokemons = new ArrayList<>();
+        for (int i = 0; i < numPokemons; i++) {
+            pokemons.add(randomPokemon());
+        }
+    }
+
+    /**
+     * Creates a game of the given level with the graphs in the data folder.
+     * The levels are spread over the graphs A0..A5 - four levels for each graph,
+     * the number of agents, pokemons and the length of the game grow with the level inside each group.
+     *
+     * @param level represents the level of the game (non negative).
+     * @param seed represents the seed of the random placement of the pokemons.
+     * @return a new local game.
+     * @throws IOException if the file of the graph could not be read.
+     */
+    public static LocalGameService forLevel(int level, long seed) throws IOException {
+        int stage = level % 4;
+        String graphName = "data/A" + Math.min(level / 4, NUM_OF_GRAPHS - 1);
+        String json = new String(Files.readAllBytes(Paths.get(graphName)), StandardCharsets.UTF_8);
+        int agents = 1 + stage / 2;
+        return new LocalGameService(json, graphName, level, agents, agents + stage, stage % 2 == 0 ? SHORT_GAME : LONG_GAME, seed);
+    }
+
+    @Override
+    public String getGraph() {
+        return graphJson;
+    }
+
+    @Override
+    public synchronized String getPokemons() {
+        StringBuilder sb = new StringBuilder("{\"Pokemons\":[");
+        for (int i = 0; i < pokemons.size(); i++) {
+            Pokemon p = pokemons.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"Pokemon\":{\"value\":").append(p.value)
+                    .append(",\"type\":").append(p.type)
+                    .append(",\"pos\":\"").append(p.x).append(',').append(p.y).append(",0.0\"}}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    @Override
+    public synchronized String getAgents() {
+        StringBuilder sb = new StringBuilder("{\"Agents\":[");
+        for (int i = 0; i < agents.size(); i++) {
+            Agent a = agents.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"Agent\":{\"id\":").append(a.id)
+                    .append(",\"value\":").append(a.value)
+                    .append(",\"src\":").append(a.src)
+                    .append(",\"dest\":").append(a.dest)
+                    .append(",\"speed\":").append(a.speed)
+                    .append(",\"pos\":\"").append(a.x).append(',').append(a.y).append(",0.0\"}}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    @Override
+    public synchronized boolean addAgent(int start_node) {
+        node_data n = graph.getNode(start_node);
+        if (started || n == null || agents.size() >= numAgents) {
+            return false;
+        }
+        Agent a = new Agent(agents.size(), start_node);
+        a.setPosition(n.getLocation());
+        agents.add(a);
+        return true;
+    }
+
+    @Override
+    public synchronized long startGame() {
+        if (started) {
+            return -1;
+        }
+        started = true;
+        running = true;
+        clock = 0;
+        lastMove = 0;
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running && clock < duration;
+    }
+
+    @Override
+    public synchronized long stopGame() {
+        running = false;
+        return clock;
+    }
+
+    @Override
+    public synchronized long chooseNextEdge(int id, int next_node) {
+        if (id < 0 || id >= agents.size()) {
+            return -1;
+        }
+        Agent a = agents.get(id);
+        if (a.dest != -1 || graph.getEdge(a.src, next_node) == null) {
+            return -1;
+        }
+        a.dest = next_node;
+        a.ratio = 0;
+        return clock;
+    }
+
+    @Override
+    public synchronized long timeToEnd() {
+        return Math.max(0, duration - clock);
+    }
+
+    /**
+     * Moves all the agents along their edges according to the time passed since the last move.
+     *
+     * @return a JSON String representing the status of all the agents.
+     */
+    @Override
+    public synchronized String move() {
+        if (isRunning()) {
+            double seconds = (Math.min(clock, duration) - lastMove) / 1000.0;
+            for (Agent a : agents) {
+                advance(a, a.speed * seconds);
+            }
+            lastMove = Math.min(clock, duration);
+            moves++;
+        }
+        return getAgents();
+    }
+
+    /**
+     * There is no database to report to in a local game.
+     *
+     * @param id represents the id of the user.
+     * @return false.
+     */
+    @Override
+    public boolean login(long id) {
+        return false;
+    }
+
+    /**
+     * Lets the given number of milliseconds pass on the clock of this game.
+     *
+     * @param ms represents the number of milliseconds.
+     */
+    public synchronized void sleep(long ms) {
+        if (ms > 0) {
+            clock += ms;
+        }
+    }
+
+    /**
+     * Returns the number of moves made in this game.
+     *
+     * @return moves.
+     */
+    public synchronized int getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the grade of this game.
+     *
+     * @return grade.
+     */
+    public synchronized double getGrade() {
+        return grade;
+    }
+
+    /**
+     * ToString method - in the format of the game server.
+     *
+     * @return String which represents the status of this game.
+     */
+    @Override
+    public synchronized String toString() {
+        return "{\"GameServer\":{\"pokemons\":" + numPokemons + ",\"is_logged_in\":false,\"moves\":" + moves
+                + ",\"grade\":" + (int) grade + ",\"game_level\":" + level + ",\"max_user_level\":-1,\"id\":0,\"graph\":\""
+                + graphName + "\",\"agents\":" + numAgents + "}}";
+    }
+
+    /**
+     * Moves the given agent the given distance (sum of weights) along its edge.
+     * The agent catches every pokemon it passes, and stops when it reaches the end of the edge.
+     *
+     * @param a represents the given agent.
+     * @param dist represents the distance the agent can pass.
+     */
+    private void advance(Agent a, double dist) {
+        if (a.dest == -1 || dist <= 0) {
+            return;
+        }
+        edge_data e = graph.getEdge(a.src, a.dest);
+        double to = e.getWeight() == 0 ? 1 : Math.min(1, a.ratio + dist / e.getWeight());
+        for (int i = 0; i < pokemons.size(); i++) {
+            Pokemon p = pokemons.get(i);
+            if (p.src == a.src && p.dest == a.dest && p.ratio >= a.ratio && p.ratio <= to) {
+                grade += p.value;
+                a.value += p.value;
+                pokemons.set(i, randomPokemon());
+            }
+        }
+        geo_location s = graph.getNode(a.src).getLocation();
+        geo_location d = graph.getNode(a.dest).getLocation();
+        if (to >= 1) {
+            a.src = a.dest;
+            a.dest = -1;
+            a.ratio = 0;
+            a.setPosition(d);
+        } else {
+            a.ratio = to;
+            a.x = s.x() + to * (d.x() - s.x());
+            a.y = s.y() + to * (d.y() - s.y());
+        }
+    }
+
+    /**
+     * Creates a new pokemon on a random edge of the graph, with a random value between 5 and 15.
+     *
+     * @return the new pokemon.
+     */
+    private Pokemon randomPokemon() {
+        List<edge_data> all = new ArrayList<>();
+        for (node_data n : graph.getV()) {
+            if (graph.getE(n.getKey()) != null) {
+                all.addAll(graph.getE(n.getKey()));
+            }
+        }
+        edge_data e = all.get(random.nextInt(all.size()));
+        Pokemon p = new Pokemon();
+        p.src = e.getSrc();
+        p.dest = e.getDest();
+        p.ratio = 0.1 + 0.8 * random.nextDouble();
+        p.value = 5 + random.nextInt(11);
+        p.type = p.src < p.dest ? 1 : -1;
+        geo_location s = graph.getNode(p.src).getLocation();
+        geo_location d = graph.getNode(p.dest).getLocation();
+        p.x = s.x() + p.ratio * (d.x() - s.x());
+        p.y = s.y() + p.ratio * (d.y() - s.y());
+        return p;
+    }
+
+    /**
+     * An agent of the local game.
+     */
+    private static class Agent {
+        private final int id;
+        private double value;
+        private int src;
+        private int dest;
+        private final double speed;
+        private double ratio;
+        private double x, y;
+
+        private Agent(int id, int src) {
+            this.id = id;
+            this.src = src;
+            this.dest = -1;
+            this.speed = 1.0;
+        }
+
+        private void setPosition(geo_location p) {
+            this.x = p.x();
+            this.y = p.y();
+        }
+    }
+
+    /**
+     * A pokemon of the local game, placed on the edge src-->dest at the given ratio.
+     */
+    private static class Pokemon {
+        private double value;
+        private int type;
+        private int src;
+        private int dest;
+        private double ratio;
+        private double x, y;
+    }
+}
@@ -0,0 +1,112 @@
+package gameClient;
+
+import api.*;
+import java.util.List;
+
+/**
+ * This class decides when the next call to move() should be made.
+ * Instead of moving on a fixed interval it computes the next interesting moment of the game -
+ * an agent reaching a node or catching a pokemon - and waits exactly until then,
+ * without making more than maxMovesPerSecond moves in a second.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class MoveScheduler {
+
+    public static final int DEFAULT_MAX_MOVES_PER_SECOND = 10;
+    public static final long MAX_DELAY = 1000;
+    private static final long SLACK = 2; // Milliseconds added so the event has surely happened when moving.
+    private final TimeToArrival timeToArrival;
+    private final game_service game;
+    private int maxMovesPerSecond;
+
+    /**
+     * Constructor.
+     *
+     * @param timeToArrival represents the predictor of the times of arrival of the game.
+     * @param game represents the game which is played.
+     */
+    public MoveScheduler(TimeToArrival timeToArrival, game_service game) {
+        this.timeToArrival = timeToArrival;
+        this.game = game;
+        this.maxMovesPerSecond = DEFAULT_MAX_MOVES_PER_SECOND;
+    }
+
+    /**
+     * Returns the maximal number of moves made in a second.
+     *
+     * @return maxMovesPerSecond.
+     */
+    public int getMaxMovesPerSecond() {
+        return maxMovesPerSecond;
+    }
+
+    /**
+     * Allows changing the maximal number of moves made in a second.
+     *
+     * @param maxMovesPerSecond represents the new maximal number of moves in a second (positive).
+     */
+    public void setMaxMovesPerSecond(int maxMovesPerSecond) {
+        if (maxMovesPerSecond > 0) {
+            this.maxMovesPerSecond = maxMovesPerSecond;
+        }
+    }
+
+    /**
+     * Returns the minimal time in milliseconds between two moves.
+     *
+     * @return the minimal delay.
+     */
+    public long minDelay() {
+        return (long) Math.ceil(1000.0 / maxMovesPerSecond);
+    }
+
+    /**
+     * Computes the time in milliseconds until the next interesting moment of the game:
+     * an agent that stands on a node needs to start moving as soon as possible,
+     * an agent on an edge is interesting when it reaches a pokemon on its edge or the end of the edge.
+     *
+     * @param agents represents the current list of agents.
+     * @param pokemons represents the current list of pokemons.
+     * @param timeToEnd represents the number of milliseconds till the game is over.
+     * @return the delay until the next move.
+     */
+    public long nextDelay(List<CL_Agent> agents, List<CL_Pokemon> pokemons, long timeToEnd) {
+        double next = MAX_DELAY;
+        if (agents != null) {
+            for (CL_Agent a : agents) {
+                if (a.getDest() == -1) {
+                    next = 0;
+                    break;
+                }
+                next = Math.min(next, timeToArrival.timeToNextNode(a));
+                if (pokemons != null) {
+                    for (CL_Pokemon p : pokemons) {
+                        edge_data e = p.getEdge();
+                        if (e != null && e.getSrc() == a.getSrc() && e.getDest() == a.getDest()) {
+                            next = Math.min(next, timeToArrival.timeToPokemon(a, p));
+                        }
+                    }
+                }
+            }
+        }
+        long delay = (long) Math.ceil(next) + SLACK;
+        delay = Math.min(delay, Math.max(timeToEnd, 0));
+        return Math.max(minDelay(), Math.min(delay, MAX_DELAY));
+    }
+
+    /**
+     * Waits the given number of milliseconds,
+     * a local game only moves its own clock forward.
+     *
+     * @param delay represents the number of milliseconds to wait.
+     * @throws InterruptedException if the waiting thread was interrupted.
+     */
+    public void pause(long delay) throws InterruptedException {
+        if (game instanceof LocalGameService) {
+            ((LocalGameService) game).sleep(delay);
+        } else {
+            Thread.sleep(delay);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package gameClient;
+
+import Server.Game_Server_Ex2;
+import api.game_service;
+import gameClient.util.Metrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class hosts many independent games at the same time, each with its own Arena and GamePlay
+ * and on its own thread - a virtual thread when the JVM has them (Java 21 and above),
+ * so a game which sleeps between its moves doesn't hold a carrier thread.
+ * On older JVMs every game gets a thread of a cached pool.
+ * The data of a level is built once and shared by all the games of the level (see LevelCache).
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class MultiGameClient {
+
+    private final ExecutorService executor;
+    private final List<Future<GamePlay>> games;
+
+    /**
+     * Default constructor.
+     */
+    public MultiGameClient() {
+        this.executor = newGameExecutor();
+        this.games = new ArrayList<>();
+    }
+
+    /**
+     * Returns an executor which runs every task on a new virtual thread,
+     * or a cached pool of daemon threads if the JVM has no virtual threads.
+     *
+     * @return the executor of the games.
+     */
+    public static ExecutorService newGameExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "game");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Starts playing the given game (without a window) on its own thread.
+     *
+     * @param game represents the given game, a new game of the given level.
+     * @param level represents the level of the given game.
+     * @return the future of the game, done when the game is over.
+     */
+    public synchronized Future<GamePlay> submit(game_service game, int level) {
+        Future<GamePlay> f = executor.submit(() -> {
+            Arena arena = new Arena(game, level);
+            GamePlay play = new GamePlay(arena, null);
+            play.run();
+            return play;
+        });
+        games.add(f);
+        return f;
+    }
+
+    /**
+     * Waits for all the submitted games to end and stops the threads of this client.
+     *
+     * @return the finished games, by the order they were submitted.
+     * @throws Exception if a game failed or the waiting was interrupted.
+     */
+    public synchronized List<GamePlay> awaitAll() throws Exception {
+        List<GamePlay> ans = new ArrayList<>();
+        try {
+            for (Future<GamePlay> f : games) {
+                ans.add(f.get());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return ans;
+    }
+
+    /**
+     * Plays many games of a level at the same time.
+     * Arguments: level, number of games, and an optional id - with an id the games are played
+     * on the game server, otherwise on local games with the seeds 0,1,2...
+     *
+     * @param args
+     * @throws Exception if a game could not be played.
+     */
+    public static void main(String[] args) throws Exception {
+        int level = Integer.parseInt(args[0]);
+        int n = Integer.parseInt(args[1]);
+        MultiGameClient client = new MultiGameClient();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < n; i++) {
+            game_service game;
+            if (args.length > 2) {
+                game = Game_Server_Ex2.getServer(level);
+                game.login(Long.parseLong(args[2]));
+            } else {
+                game = LocalGameService.forLevel(level, i);
+            }
+            client.submit(game, level);
+        }
+        long total = 0;
+        List<GamePlay> played = client.awaitAll();
+        for (GamePlay g : played) {
+            total += g.getScore();
+        }
+        System.out.println(played.size() + " games, total score " + total + ", "
+                + (System.currentTimeMillis() - start) + " ms");
+        Metrics.dump(System.out);
+    }
+}
@@ -0,0 +1,66 @@
+package gameClient;
+
+import java.util.List;
+
+/**
+ * This class represents the decisions of the agents for a tick which were computed ahead of time,
+ * from the predicted state of the game, while the previous move was running.
+ * The plan may be committed only if the fresh state of the game is the predicted one.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class TickPlan {
+
+    private final List<CL_Agent> agents;
+    private final List<CL_Pokemon> pokemons;
+    private final CommandBuffer commands;
+
+    /**
+     * Constructor.
+     *
+     * @param agents represents the predicted agents the plan was computed for.
+     * @param pokemons represents the pokemons the plan was computed for.
+     * @param commands represents the decisions of the plan.
+     */
+    public TickPlan(List<CL_Agent> agents, List<CL_Pokemon> pokemons, CommandBuffer commands) {
+        this.agents = agents;
+        this.pokemons = pokemons;
+        this.commands = commands;
+    }
+
+    /**
+     * Returns the decisions of this plan.
+     *
+     * @return commands.
+     */
+    public CommandBuffer getCommands() {
+        return commands;
+    }
+
+    /**
+     * Checks if the given fresh state of the game is the state this plan was computed for -
+     * every agent is on the predicted edge (or node) and the pokemons didn't change.
+     *
+     * @param agents represents the fresh list of agents.
+     * @param pokemons represents the fresh list of pokemons.
+     * @return true if the plan can be committed.
+     */
+    public boolean matches(List<CL_Agent> agents, List<CL_Pokemon> pokemons) {
+        if (agents.size() != this.agents.size() || pokemons.size() != this.pokemons.size()) {
+            return false;
+        }
+        for (int i = 0; i < agents.size(); i++) {
+            CL_Agent a = agents.get(i), b = this.agents.get(i);
+            if (a.getId() != b.getId() || a.getSrc() != b.getSrc() || a.getDest() != b.getDest()) {
+                return false;
+            }
+        }
+        for (int i = 0; i < pokemons.size(); i++) {
+            CL_Pokemon p = pokemons.get(i), q = this.pokemons.get(i);
+            if (p.getValue() != q.getValue() || p.getPos().x() != q.getPos().x() || p.getPos().y() != q.getPos().y()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,215 @@
+package gameClient;
+
+import api.*;
+import java.util.*;
+
+/**
+ * This class predicts the time (in milliseconds) it takes each agent to reach each pokemon.
+ * The prediction takes into account the part of the current edge the agent still has to pass,
+ * the weights of the edges on the shortest path and the speed of the agent.
+ * An agent passes an edge with weight w in w/speed seconds.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class TimeToArrival {
+
+    private final directed_weighted_graph graph;
+    private List<CL_Agent> agents;
+    private List<CL_Pokemon> pokemons;
+    private double[][] times;
+    private final PathTable paths;
+
+    /**
+     * Constructor.
+     *
+     * @param graph represents the graph of the game.
+     */
+    public TimeToArrival(directed_weighted_graph graph) {
+        this(new PathTable(graph));
+    }
+
+    /**
+     * Constructor - uses the given (possibly shared) shortest paths of the graph of the game.
+     *
+     * @param paths represents the shortest paths of the graph of the game.
+     */
+    public TimeToArrival(PathTable paths) {
+        this.graph = paths.getGraph();
+        this.paths = paths;
+        this.agents = new ArrayList<>();
+        this.pokemons = new ArrayList<>();
+        this.times = new double[0][0];
+    }
+
+    /**
+     * Computes the time of arrival of every agent to every pokemon,
+     * should be called once per tick with the fresh lists of the game.
+     *
+     * @param agents represents the current list of agents.
+     * @param pokemons represents the current list of pokemons.
+     */
+    public void update(List<CL_Agent> agents, List<CL_Pokemon> pokemons) {
+        this.agents = agents;
+        this.pokemons = pokemons;
+        double[][] t = new double[agents.size()][pokemons.size()];
+        for (int i = 0; i < agents.size(); i++) {
+            CL_Agent a = agents.get(i);
+            for (int j = 0; j < pokemons.size(); j++) {
+                t[i][j] = timeToPokemon(a, pokemons.get(j));
+            }
+        }
+        this.times = t;
+    }
+
+    /**
+     * Returns the matrix computed in the last update - times[i][j] is the time
+     * in milliseconds for the agent at index i to reach the pokemon at index j.
+     *
+     * @return times.
+     */
+    public double[][] getTimes() {
+        return times;
+    }
+
+    /**
+     * Returns the list of agents of the last update.
+     *
+     * @return agents.
+     */
+    public List<CL_Agent> getAgents() {
+        return agents;
+    }
+
+    /**
+     * Returns the list of pokemons of the last update.
+     *
+     * @return pokemons.
+     */
+    public List<CL_Pokemon> getPokemons() {
+        return pokemons;
+    }
+
+    /**
+     * Returns the time in milliseconds until the given agent reaches the end of its current edge,
+     * 0 if the agent stands on a node.
+     *
+     * @param a represents the given agent.
+     * @return time to the next node.
+     */
+    public double timeToNextNode(CL_Agent a) {
+        if (a.getDest() == -1) {
+            return 0;
+        }
+        edge_data e = graph.getEdge(a.getSrc(), a.getDest());
+        if (e == null || a.getSpeed() <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return toMillis(e.getWeight() * remainingRatio(a, e), a.getSpeed());
+    }
+
+    /**
+     * Returns the time in milliseconds until the given agent reaches the given node.
+     *
+     * @param a represents the given agent.
+     * @param key represents the key of the given node.
+     * @return time to the node, Double.POSITIVE_INFINITY if the node can't be reached.
+     */
+    public double timeToNode(CL_Agent a, int key) {
+        if (a.getSpeed() <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int start = a.getDest() == -1 ? a.getSrc() : a.getDest();
+        double d = dist(start, key);
+        if (d == Double.POSITIVE_INFINITY) {
+            return d;
+        }
+        return timeToNextNode(a) + toMillis(d, a.getSpeed());
+    }
+
+    /**
+     * Returns the time in milliseconds until the given agent reaches the given pokemon.
+     * If the pokemon is ahead of the agent on its current edge, only the part of the edge
+     * between them is counted.
+     *
+     * @param a represents the given agent.
+     * @param p represents the given pokemon.
+     * @return time to the pokemon, Double.POSITIVE_INFINITY if the pokemon can't be reached.
+     */
+    public double timeToPokemon(CL_Agent a, CL_Pokemon p) {
+        edge_data pe = p.getEdge();
+        if (pe == null || a.getSpeed() <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double along = pe.getWeight() * ratioOnEdge(p.getPos(), pe);
+        if (a.getDest() != -1 && a.getSrc() == pe.getSrc() && a.getDest() == pe.getDest()) {
+            double passed = pe.getWeight() * (1 - remainingRatio(a, pe));
+            if (passed <= along) {
+                return toMillis(along - passed, a.getSpeed());
+            }
+        }
+        double toSrc = timeToNode(a, pe.getSrc());
+        if (toSrc == Double.POSITIVE_INFINITY) {
+            return toSrc;
+        }
+        return toSrc + toMillis(along, a.getSpeed());
+    }
+
+    /**
+     * Returns the ratio [0,1] of the edge e which the given agent still has to pass.
+     *
+     * @param a represents the given agent.
+     * @param e represents the edge the agent is on.
+     * @return the remaining ratio.
+     */
+    private double remainingRatio(CL_Agent a, edge_data e) {
+        geo_location src = graph.getNode(e.getSrc()).getLocation();
+        geo_location dest = graph.getNode(e.getDest()).getLocation();
+        if (a.getPos() == null || src == null || dest == null) {
+            return 1;
+        }
+        double len = src.distance(dest);
+        if (len == 0) {
+            return 0;
+        }
+        return Math.min(1, a.getPos().distance(dest) / len);
+    }
+
+    /**
+     * Returns the ratio [0,1] of the given position between the source and the destination of e.
+     *
+     * @param pos represents the given position.
+     * @param e represents the given edge.
+     * @return the ratio of pos on e.
+     */
+    private double ratioOnEdge(geo_location pos, edge_data e) {
+        geo_location src = graph.getNode(e.getSrc()).getLocation();
+        geo_location dest = graph.getNode(e.getDest()).getLocation();
+        if (pos == null || src == null || dest == null) {
+            return 0;
+        }
+        double len = src.distance(dest);
+        if (len == 0) {
+            return 0;
+        }
+        return Math.min(1, src.distance(pos) / len);
+    }
+
+    /**
+     * Returns the length of the shortest path between src and dest.
+     *
+     * @param src represents the key of the source node.
+     * @param dest represents the key of the destination node.
+     * @return the length of the shortest path, Double.POSITIVE_INFINITY if there is no path.
+     */
+    private double dist(int src, int dest) {
+        double ans = paths.shortestPathDist(src, dest);
+        return ans == -1 ? Double.POSITIVE_INFINITY : ans;
+    }
+
+    /**
+     * Converts a distance (sum of weights) to milliseconds for the given speed.
+     */
+    private static double toMillis(double dist, double speed) {
+        return dist / speed * 1000;
+    }
+}
@@ -0,0 +1,188 @@
+package gameClient;
+
+import com.google.gson.GsonBuilder;
+import gameClient.util.Metrics;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class plays many local games in parallel - every level with many random seeds,
+ * each game on its own thread with its own Arena, and reports the score, the moves
+ * and the CPU time per tick of every game to a CSV and a JSON file.
+ * Used for measuring changes in Arena.movementStrategy() both for score and for throughput.
+ *
+ * @authors Liel.Vaknin & Renana.Levy.
+ */
+public class Tournament {
+
+    public static final int NUM_OF_LEVELS = 24;
+
+    /**
+     * The result of a single game of the tournament.
+     */
+    public static class Result {
+        private final int level;
+        private final long seed;
+        private final int score;
+        private final int moves;
+        private final int ticks;
+        private final long cpuNanosPerTick;
+        private final long wallMillis;
+
+        /**
+         * Constructor.
+         *
+         * @param level represents the level of the game.
+         * @param seed represents the seed of the game.
+         * @param score represents the final score of the game.
+         * @param moves represents the number of moves made in the game.
+         * @param ticks represents the number of ticks played.
+         * @param cpuNanosPerTick represents the average CPU time of a tick in nanoseconds.
+         * @param wallMillis represents the wall clock time the game took in milliseconds.
+         */
+        public Result(int level, long seed, int score, int moves, int ticks, long cpuNanosPerTick, long wallMillis) {
+            this.level = level;
+            this.seed = seed;
+            this.score = score;
+            this.moves = moves;
+            this.ticks = ticks;
+            this.cpuNanosPerTick = cpuNanosPerTick;
+            this.wallMillis = wallMillis;
+        }
+
+        public int getLevel() {return level;}
+
+        public long getSeed() {return seed;}
+
+        public int getScore() {return score;}
+
+        public int getMoves() {return moves;}
+
+        public int getTicks() {return ticks;}
+
+        public long getCpuNanosPerTick() {return cpuNanosPerTick;}
+
+        public long getWallMillis() {return wallMillis;}
+    }
+
+    /**
+     * Plays the given levels with the given seeds on the given number of threads.
+     *
+     * @param levels represents the levels to play.
+     * @param seeds represents the seeds each level is played with.
+     * @param threads represents the number of games played at the same time.
+     * @return the results of all the games, ordered by level and then by seed.
+     * @throws Exception if a game could not be played.
+     */
+    public static List<Result> run(int[] levels, long[] seeds, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> games = new ArrayList<>();
+            for (int level : levels) {
+                for (long seed : seeds) {
+                    games.add(pool.submit(() -> play(level, seed)));
+                }
+            }
+            List<Result> ans = new ArrayList<>();
+            for (Future<Result> f : games) {
+                ans.add(f.get());
+            }
+            return ans;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays a single local game on the current thread.
+     *
+     * @param level represents the level of the game.
+     * @param seed represents the seed of the game.
+     * @return the result of the game.
+     * @throws IOException if the graph of the level could not be read.
+     */
+    public static Result play(int level, long seed) throws IOException {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        long wall = System.currentTimeMillis();
+        long cpu = mx.getCurrentThreadCpuTime();
+        Arena arena = new Arena(LocalGameService.forLevel(level, seed), level);
+        GamePlay game = new GamePlay(arena, null);
+        game.run();
+        cpu = mx.getCurrentThreadCpuTime() - cpu;
+        wall = System.currentTimeMillis() - wall;
+        return new Result(level, seed, game.getScore(), game.getMoves(), game.getTicks(), cpu / Math.max(1, game.getTicks()), wall);
+    }
+
+    /**
+     * Writes the given results to a CSV file.
+     *
+     * @param results represents the given results.
+     * @param file represents the file name.
+     * @throws IOException if the file could not be written.
+     */
+    public static void writeCsv(List<Result> results, String file) throws IOException {
+        try (Writer w = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8)) {
+            w.write("level,seed,score,moves,ticks,cpu_nanos_per_tick,wall_millis\n");
+            for (Result r : results) {
+                w.write(r.level + "," + r.seed + "," + r.score + "," + r.moves + "," + r.ticks + ","
+                        + r.cpuNanosPerTick + "," + r.wallMillis + "\n");
+            }
+        }
+    }
+
+    /**
+     * Writes the given results to a JSON file.
+     *
+     * @param results represents the given results.
+     * @param file represents the file name.
+     * @throws IOException if the file could not be written.
+     */
+    public static void writeJson(List<Result> results, String file) throws IOException {
+        try (Writer w = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(results, w);
+        }
+    }
+
+    /**
+     * Plays all the levels and writes the report.
+     * Arguments (all optional): number of seeds for each level (default 10),
+     * number of threads (default the number of processors), prefix of the report files (default "tournament").
+     *
+     * @param args
+     * @throws Exception if a game could not be played or the report could not be written.
+     */
+    public static void main(String[] args) throws Exception {
+        int numOfSeeds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String prefix = args.length > 2 ? args[2] : "tournament";
+        int[] levels = new int[NUM_OF_LEVELS];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = i;
+        }
+        long[] seeds = new long[numOfSeeds];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = i;
+        }
+        long start = System.currentTimeMillis();
+        List<Result> results = run(levels, seeds, threads);
+        long total = 0;
+        for (Result r : results) {
+            total += r.score;
+        }
+        writeCsv(results, prefix + ".csv");
+        writeJson(results, prefix + ".json");
+        System.out.println(results.size() + " games, total score " + total + ", "
+                + (System.currentTimeMillis() - start) + " ms");
+        Metrics.dump(System.out);
+    }
+}
@@ -4,6 +4,10 @@ import api.*;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import gameClient.util.Metrics;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,24 +27,10 @@ public final class jsonToObject {
      * @param graph represents a new empty graph which built according all the information of the given JSON String.
      */
     public static void loadGraph(String json, directed_weighted_graph graph) {
-        Gson gson = new Gson();
-        JsonObject jGraph = gson.fromJson(json, JsonObject.class);
-        JsonArray nodes = jGraph.get("Nodes").getAsJsonArray();
-        for (int i = 0; i < nodes.size(); i++) {
-            int id = nodes.get(i).getAsJsonObject().get("id").getAsInt();
-            String pos = nodes.get(i).getAsJsonObject().get("pos").getAsString();
-            geo_location location = new GeoLocation(pos);
-            node_data node = new NodeData(id);
-            node.setLocation(location);
-            graph.addNode(node);
-        }
-
-        JsonArray edges = jGraph.get("Edges").getAsJsonArray();
-        for (int i = 0; i < edges.size(); i++) {
-            int src = edges.get(i).getAsJsonObject().get("src").getAsInt();
-            int dest = edges.get(i).getAsJsonObject().get("dest").getAsInt();
-            double weight = edges.get(i).getAsJsonObject().get("w").getAsDouble();
-            graph.connect(src, dest, weight);
+        try {
+            GraphJson.read(new StringReader(json), graph);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringReader never throws.
         }
     }
 
@@ -52,6 +42,7 @@ public final class jsonToObject {
      * @return List<CL_Agent>.
      */
     public static List<CL_Agent> loadAgents(String json) {
+        long t = Metrics.start();
         List<CL_Agent> l = new ArrayList<>();
         Gson gson = new Gson();
         JsonObject jsonAgents = gson.fromJson(json, JsonObject.class);
@@ -67,6 +58,7 @@ public final class jsonToObject {
             CL_Agent a = new CL_Agent(id, value, src, dest, speed, pos);
             l.add(a);
         }
+        Metrics.stop(Metrics.Span.PARSE, t);
         return l;
     }
 
@@ -79,16 +71,30 @@ public final class jsonToObject {
      * @return List<CL_Pokemon>.
      */
     public static List<CL_Pokemon> loadPokemon(String json, directed_weighted_graph graph) {
+        return loadPokemon(json, graph, null);
+    }
+
+    /**
+     * Like loadPokemon(json, graph), but finds the edges of the pokemons with the given index of the edges of the graph.
+     *
+     * @param json represents a JSON String which contains all the information about the game's list of pokemons.
+     * @param graph represents the graph's game.
+     * @param index represents the index of the edges of the graph, null for checking all the edges.
+     * @return List<CL_Pokemon>.
+     */
+    public static List<CL_Pokemon> loadPokemon(String json, directed_weighted_graph graph, EdgeIndex index) {
+        long t = Metrics.start();
         List<CL_Pokemon> l = new ArrayList<>();
         Gson gson = new Gson();
         JsonObject jsonPokemons = gson.fromJson(json, JsonObject.class);
+        Metrics.stop(Metrics.Span.PARSE, t);
         JsonArray arrayPokemons = jsonPokemons.get("Pokemons").getAsJsonArray();
         for(int i=0;i<arrayPokemons.size();i++) {
             JsonObject agent= arrayPokemons.get(i).getAsJsonObject().get("Pokemon").getAsJsonObject();
             int value = agent.get("value").getAsInt();
             int type = agent.get("type").getAsInt();
             geo_location pos = new GeoLocation(agent.get("pos").getAsString());
-            CL_Pokemon p = new CL_Pokemon(value, type, pos, graph);
+            CL_Pokemon p = new CL_Pokemon(value, type, pos, graph, index);
             l.add(p);
         }
         return l;
@@ -0,0 +1,237 @@
+package gameClient.util;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.ObjectName;
+
+/**
+ * This class measures where the time of a tick of the game goes.
+ * A span is measured by:
+ *     long t = Metrics.start();
+ *     ...
+ *     Metrics.stop(Metrics.Span.PATH, t);
+ * The durations are kept in log-linear buckets (like HdrHistogram - 8 buckets for every power of 2,
+ * so a percentile is accurate up to 12.5%), and the counters count events such as calls to the server.
+ * When disabled (the default, enabled by -Dex2.metrics=true or through JMX), start() only reads a flag
+ * and stop() does nothing.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    /**
+     * The measured parts of a tick.
+     */
+    public enum Span {TICK, MOVE, PARSE, SNAP, PATH, CHOOSE, PAINT}
+
+    /**
+     * The counted events.
+     */
+    public enum Counter {SERVER_MOVES, SERVER_COMMANDS, SERVER_READS, PLANS_COMMITTED, PLANS_DROPPED}
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BITS = 3;
+    private static volatile boolean enabled = Boolean.getBoolean("ex2.metrics");
+    private static final Histogram[] histograms = new Histogram[Span.values().length];
+    private static final AtomicLong[] counters = new AtomicLong[Counter.values().length];
+    private static final Metrics INSTANCE = new Metrics();
+
+    static {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new AtomicLong();
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName("gameClient:type=Metrics"));
+        } catch (Exception e) {
+            // Already registered (another class loader) or no JMX - the metrics still work.
+        }
+    }
+
+    private Metrics() {}
+
+    /**
+     * Returns the instance registered in the platform MBean server.
+     *
+     * @return the metrics.
+     */
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts measuring a span.
+     *
+     * @return the start time of the span, 0 if the metrics are disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Ends measuring a span which was started by start().
+     *
+     * @param span represents the measured span.
+     * @param start represents the value returned by start().
+     */
+    public static void stop(Span span, long start) {
+        if (start != 0) {
+            histograms[span.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts a single event.
+     *
+     * @param counter represents the counted event.
+     */
+    public static void count(Counter counter) {
+        if (enabled) {
+            counters[counter.ordinal()].incrementAndGet();
+        }
+    }
+
+    /**
+     * Prints the report to the given stream if the metrics are enabled.
+     *
+     * @param out represents the given stream.
+     */
+    public static void dump(PrintStream out) {
+        if (enabled) {
+            out.print(INSTANCE.getReport());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> ans = new LinkedHashMap<>();
+        for (Span s : Span.values()) {
+            ans.put(s.name(), histograms[s.ordinal()].count.get());
+        }
+        for (Counter c : Counter.values()) {
+            ans.put(c.name(), counters[c.ordinal()].get());
+        }
+        return ans;
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        Map<String, Double> ans = new LinkedHashMap<>();
+        for (Span s : Span.values()) {
+            ans.put(s.name(), histograms[s.ordinal()].percentile(0.99) / 1000.0);
+        }
+        return ans;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-8s %10s %12s %10s %10s %10s %10s%n", "span", "count", "total(ms)", "p50(us)", "p90(us)", "p99(us)", "max(us)"));
+        for (Span s : Span.values()) {
+            Histogram h = histograms[s.ordinal()];
+            sb.append(String.format("%-8s %10d %12.1f %10.1f %10.1f %10.1f %10.1f%n", s.name(), h.count.get(), h.total.get() / 1e6,
+                    h.percentile(0.5) / 1e3, h.percentile(0.9) / 1e3, h.percentile(0.99) / 1e3, h.max.get() / 1e3));
+        }
+        for (Counter c : Counter.values()) {
+            sb.append(String.format("%-16s %10d%n", c.name(), counters[c.ordinal()].get()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (Histogram h : histograms) {
+            h.reset();
+        }
+        for (AtomicLong c : counters) {
+            c.set(0);
+        }
+    }
+
+    /**
+     * A concurrent histogram of durations in nanoseconds with log-linear buckets.
+     */
+    private static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        private void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            buckets.incrementAndGet(index(nanos));
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            long m;
+            while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {
+                // Retry until this value or a bigger one is the max.
+            }
+        }
+
+        /**
+         * Returns the bucket of the given value - values below 8 have their own buckets,
+         * above that every power of 2 is split into 8 buckets.
+         */
+        private static int index(long v) {
+            if (v < SUB_BUCKETS) {
+                return (int) v;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        /**
+         * Returns the highest value which falls in the given bucket.
+         */
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int magnitude = index / SUB_BUCKETS + SUB_BITS - 1;
+            long sub = index % SUB_BUCKETS;
+            return ((SUB_BUCKETS + sub + 1) << (magnitude - SUB_BITS)) - 1;
+        }
+
+        private long percentile(double p) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p * n);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        private void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            total.set(0);
+            max.set(0);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package gameClient.util;
+
+import java.util.Map;
+
+/**
+ * This interface represents the management interface of the game loop metrics,
+ * registered in the platform MBean server as "gameClient:type=Metrics".
+ */
+public interface MetricsMXBean {
+    /**
+     * Returns true iff the metrics are being collected.
+     * @return
+     */
+    public boolean isEnabled();
+    /**
+     * Starts or stops collecting the metrics.
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled);
+    /**
+     * Returns the number of events of every span and counter.
+     * @return
+     */
+    public Map<String, Long> getCounts();
+    /**
+     * Returns the 99th percentile of every span in microseconds.
+     * @return
+     */
+    public Map<String, Double> getP99Micros();
+    /**
+     * Returns a readable report of all the spans and counters.
+     * @return
+     */
+    public String getReport();
+    /**
+     * Clears all the collected metrics.
+     */
+    public void reset();
+}
@@ -27,4 +27,14 @@ public class Range2D {
 		double y = _y_range.fromPortion(p.y());
 		return new Point3D(x,y,0);
 	}	
+	/** Writes the portion of (x,y) to out[0], out[1] - without allocating. */
+	public void getPortion(double x, double y, double[] out) {
+		out[0] = _x_range.getPortion(x);
+		out[1] = _y_range.getPortion(y);
+	}
+	/** Writes the point of the portion (x,y) to out[0], out[1] - without allocating. */
+	public void fromPortion(double x, double y, double[] out) {
+		out[0] = _x_range.fromPortion(x);
+		out[1] = _y_range.fromPortion(y);
+	}
 }
@@ -16,14 +16,27 @@ public class Range2Range {
 		_frame = new Range2D(f);
 	}
 	public geo_location world2frame(geo_location p) {
-		Point3D d = _world.getPortion(p);
-		Point3D ans = _frame.fromPortion(d);
-		return ans;
+		double[] xy = new double[2];
+		world2frame(p.x(), p.y(), xy);
+		return new Point3D(xy[0], xy[1], 0);
 	}
 	public geo_location frame2world(geo_location p) {
-		Point3D d = _frame.getPortion(p);
-		Point3D ans = _world.fromPortion(d);
-		return ans;
+		double[] xy = new double[2];
+		frame2world(p.x(), p.y(), xy);
+		return new Point3D(xy[0], xy[1], 0);
+	}
+	/**
+	 * Writes the frame point of the world point (x,y) to out[0], out[1] -
+	 * without allocating, for drawing many points on every frame.
+	 */
+	public void world2frame(double x, double y, double[] out) {
+		_world.getPortion(x, y, out);
+		_frame.fromPortion(out[0], out[1], out);
+	}
+	/** Writes the world point of the frame point (x,y) to out[0], out[1] - without allocating. */
+	public void frame2world(double x, double y, double[] out) {
+		_frame.getPortion(x, y, out);
+		_world.fromPortion(out[0], out[1], out);
 	}
 	public Range2D getWorld() {
 		return _world;
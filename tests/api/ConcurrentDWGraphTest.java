@@ -0,0 +1,190 @@
+package api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for ConcurrentDWGraph class.
+ */
+class ConcurrentDWGraphTest {
+
+    directed_weighted_graph g_Test = new ConcurrentDWGraph();
+
+    /**
+     * Builts a graph with 5 nodes and 9 edges (the graph of DWGraph_DSTest).
+     */
+    @BeforeEach
+    public void buildingGraph() {
+        for (int i = 0; i < 5; i++) {
+            g_Test.addNode(new NodeData());
+        }
+        g_Test.connect(0, 1, 6);
+        g_Test.connect(0, 2, 9);
+        g_Test.connect(1, 2, 2);
+        g_Test.connect(1, 3, 7);
+        g_Test.connect(1, 4, 5);
+        g_Test.connect(2, 0, 3);
+        g_Test.connect(2, 3, 1);
+        g_Test.connect(3, 4, 1);
+        g_Test.connect(4, 1, 3);
+        assertEquals(5, g_Test.nodeSize());
+        assertEquals(9, g_Test.edgeSize());
+        assertEquals(14, g_Test.getMC());
+    }
+
+    /**
+     * Test for addNode, connect and getEdge methods.
+     */
+    @Test
+    public void nodesAndEdges() {
+        node_data n5 = new NodeData();
+        g_Test.addNode(n5);
+        assertEquals(5, n5.getKey());
+        g_Test.addNode(n5);                         //Add node which there is in the graph.
+        assertEquals(6, g_Test.nodeSize());
+        assertEquals(15, g_Test.getMC());
+        g_Test.connect(1, 4, 10);                   //Connect 2 nodes that connected.
+        assertEquals(5.0, g_Test.getEdge(1, 4).getWeight());
+        g_Test.connect(4, 12, 3);                   //Connect to a node that isn't in the graph.
+        assertNull(g_Test.getEdge(4, 12));
+        g_Test.connect(3, 3, 7);                    //Connect node to himself.
+        assertNull(g_Test.getEdge(3, 3));
+        g_Test.connect(5, 0, 1);
+        assertNotNull(g_Test.getEdge(5, 0));
+        assertEquals(10, g_Test.edgeSize());
+        assertEquals(16, g_Test.getMC());
+        assertEquals(3, g_Test.getE(1).size());
+        assertNull(g_Test.getE(10));
+    }
+
+    /**
+     * Test for removeNode and removeEdge methods - removing a node removes its in and out edges.
+     */
+    @Test
+    public void remove() {
+        assertNotNull(g_Test.removeEdge(0, 1));
+        assertNull(g_Test.removeEdge(0, 1));        //Remove a edge that isn't in the graph.
+        assertNull(g_Test.removeEdge(2, 2));
+        assertEquals(8, g_Test.edgeSize());
+        assertEquals(15, g_Test.getMC());
+        node_data n = g_Test.removeNode(1);         //Node 1 has 3 out edges and 1 in edge left.
+        assertEquals(1, n.getKey());
+        assertNull(g_Test.removeNode(1));
+        assertEquals(4, g_Test.nodeSize());
+        assertEquals(4, g_Test.edgeSize());
+        assertEquals(20, g_Test.getMC());
+        assertNull(g_Test.getEdge(4, 1));
+        assertNull(g_Test.getE(1));
+        assertEquals(0, g_Test.getE(4).size());
+        checkEdges(g_Test);
+    }
+
+    /**
+     * Test for the copy constructor and equals method.
+     */
+    @Test
+    public void copyAndEquals() {
+        directed_weighted_graph ds = new DWGraph_DS(g_Test);
+        assertEquals(g_Test, ds);
+        assertEquals(ds, g_Test);
+        directed_weighted_graph copy = new ConcurrentDWGraph(ds);
+        assertEquals(g_Test, copy);
+        assertEquals(g_Test.hashCode(), copy.hashCode());
+        assertEquals(14, copy.getMC());
+        copy.getEdge(0, 1).setTag(3);               //The edges are copied.
+        assertNotEquals(g_Test, copy);
+        assertEquals(0, g_Test.getEdge(0, 1).getTag());
+        copy.getEdge(0, 1).setTag(0);
+        g_Test.connect(4, 0, 1);
+        copy.connect(0, 4, 1);
+        assertNotEquals(g_Test, copy);              //Same number of edges, different edges.
+        assertNotEquals(copy, g_Test);
+    }
+
+    /**
+     * Stress test - threads connect, remove edges and remove (and add again) the same nodes at the same time.
+     * Afterwards edgeSize() is the number of the edges, and no edge ends at a removed node.
+     */
+    @Test
+    public void threads() throws Exception {
+        int nodes = 8, threads = 8;
+        ConcurrentDWGraph g = new ConcurrentDWGraph();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < nodes; i++) {
+                    g.addNode(new NodeData(i));
+                }
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> done = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    long seed = round * threads + t;
+                    done.add(pool.submit(() -> {
+                        Random r = new Random(seed);
+                        start.await();
+                        for (int i = 0; i < 20000; i++) {
+                            int a = r.nextInt(nodes), b = r.nextInt(nodes);
+                            int op = r.nextInt(4);
+                            if (op == 0) {
+                                g.connect(a, b, 1 + r.nextInt(10));
+                            } else if (op == 1) {
+                                g.removeEdge(a, b);
+                            } else if (op == 2) {
+                                g.removeNode(a);
+                            } else {
+                                g.addNode(new NodeData(a));
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> f : done) {
+                    f.get();
+                }
+                checkEdges(g);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        for (int i = 0; i < nodes; i += 2) {        //Every removal still removes all the edges of the node.
+            g.removeNode(i);
+            checkEdges(g);
+        }
+        for (int i = 1; i < nodes; i += 2) {
+            g.removeNode(i);
+        }
+        assertEquals(0, g.nodeSize());
+        assertEquals(0, g.edgeSize());
+    }
+
+    /**
+     * Checks that edgeSize() is the number of the edges out of all the nodes, that nodeSize() is the number
+     * of the nodes, and that every edge is between nodes of the graph.
+     */
+    private static void checkEdges(directed_weighted_graph g) {
+        int edges = 0, count = 0;
+        for (node_data n : g.getV()) {
+            count++;
+            Collection<edge_data> out = g.getE(n.getKey());
+            for (edge_data e : out) {
+                assertEquals(n.getKey(), e.getSrc());
+                assertNotNull(g.getNode(e.getDest()), "An edge to the removed node " + e.getDest());
+                edges++;
+            }
+        }
+        assertEquals(count, g.nodeSize());
+        assertEquals(edges, g.edgeSize());
+    }
+}
@@ -0,0 +1,156 @@
+package api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for CoordinateParser class - every number is parsed to the same bits as Double.parseDouble()
+ * (so -0.0 differs from 0.0), and what Double.parseDouble() rejects is rejected.
+ */
+class CoordinateParserTest {
+
+    Random r = new Random(1);
+
+    /**
+     * Test for the Strings of Double.toString() of random bit patterns (including NaN, Infinity and subnormals).
+     */
+    @Test
+    public void toStrings() {
+        for (int i = 0; i < 200000; i++) {
+            check(Double.toString(Double.longBitsToDouble(r.nextLong())));
+            check(Double.toString(r.nextDouble() * 100 - 50));          //Like the positions of the server.
+        }
+        for (double d : new double[]{0.0, -0.0, Double.MIN_VALUE, Double.MAX_VALUE, Math.pow(2, 53), Math.pow(2, 53) + 2,
+                35.18753053591606, 32.10378225882353, -1.0, 1e22, 1e23}) {
+            check(Double.toString(d));
+        }
+    }
+
+    /**
+     * Test for numbers with 17, 18 and 19 significant digits - around the limit of the fast path.
+     */
+    @Test
+    public void significantDigits() {
+        for (int i = 0; i < 100000; i++) {
+            check(digits(17 + r.nextInt(3)));
+        }
+        check("9007199254740993");      //2^53 + 1 - not exact in a double.
+        check("9007199254740992.5");
+        check("123456789012345678");
+        check("1234567890123456789");
+        check("0.000000000000000012345678901234567");
+        check("99999999999999999.9");
+    }
+
+    /**
+     * Test for exponents at the limits of the exact powers of ten (+-22) and above them (23 to 37).
+     */
+    @Test
+    public void exponents() {
+        for (int exp = -25; exp <= 40; exp++) {
+            for (String d : new String[]{"1", "9", "123", "4.5", "9007199254740991", "123456789012345", "-7.25"}) {
+                check(d + "e" + exp);
+                check(d + "E" + exp);
+            }
+            check("1e+" + exp);
+            for (int i = 0; i < 200; i++) {
+                check(digits(1 + r.nextInt(16)) + "e" + exp);
+            }
+        }
+        check("1e-400");
+        check("1e400");
+        check("1e0000000000000000000000001");
+    }
+
+    /**
+     * Test for the signs, zeros and the dot at the edges of a number.
+     */
+    @Test
+    public void signsAndDots() {
+        for (String s : new String[]{"-0.0", "0.0", "-0", "+0", "0", "000", "-000.000", ".5", "5.", "-.5", "+5.",
+                "0.5", "00012.5000", "1.0E-5", "-0e5", "+1", "-1", "Infinity", "-Infinity", "NaN", "1d", "2f", " 1", "1 "}) {
+            check(s);
+        }
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(CoordinateParser.parseDouble("-0.0", 0, 4)));
+        assertEquals(0.5, CoordinateParser.parseDouble(".5", 0, 2));
+        assertEquals(5.0, CoordinateParser.parseDouble("5.", 0, 2));
+    }
+
+    /**
+     * Test for the inputs which are not numbers - NumberFormatException, like Double.parseDouble().
+     */
+    @Test
+    public void badInputs() {
+        for (String s : new String[]{"1e", "-", "1e+", "1e-", "", ".", "-.", "e5", "1.2.3", "--1", "1,5", "1e5.5", "x"}) {
+            assertThrows(NumberFormatException.class, () -> Double.parseDouble(s));
+            assertThrows(NumberFormatException.class, () -> CoordinateParser.parseDouble(s, 0, s.length()), s);
+        }
+    }
+
+    /**
+     * Test for the parts of a String - the number between from and to, and end.
+     */
+    @Test
+    public void ranges() {
+        String s = "35.5,-32.25,0.0";
+        assertEquals(4, CoordinateParser.end(s, 0));
+        assertEquals(11, CoordinateParser.end(s, 5));
+        assertEquals(s.length(), CoordinateParser.end(s, 12));
+        assertEquals(35.5, CoordinateParser.parseDouble(s, 0, 4));
+        assertEquals(-32.25, CoordinateParser.parseDouble(s, 5, 11));
+        assertEquals(0.0, CoordinateParser.parseDouble(s, 12, s.length()));
+        assertEquals(2.5, CoordinateParser.parseDouble(new StringBuilder("x2.5x"), 1, 4));
+    }
+
+    /**
+     * Test for GeoLocation(String) and Point3D(String) - "x,y,z", and less than two commas is rejected.
+     */
+    @Test
+    public void positions() {
+        geo_location p = new GeoLocation("35.18753053591606,32.10378225882353,0.0");
+        assertEquals(35.18753053591606, p.x());
+        assertEquals(32.10378225882353, p.y());
+        assertEquals(0.0, p.z());
+        gameClient.util.Point3D q = new gameClient.util.Point3D("-1.5,2,3e2");
+        assertEquals(-1.5, q.x());
+        assertEquals(2.0, q.y());
+        assertEquals(300.0, q.z());
+        for (String s : new String[]{"", "1", "1.5", "1,2", "1.5,2.5", ",", "1,2,"}) {
+            assertThrows(NumberFormatException.class, () -> new GeoLocation(s), s);
+        }
+        assertThrows(NumberFormatException.class, () -> new GeoLocation("1,x,3"));
+    }
+
+    /**
+     * Checks that the given String is parsed to the same bits as by Double.parseDouble(), or throws like it.
+     */
+    private static void check(String s) {
+        double expected;
+        try {
+            expected = Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            assertThrows(NumberFormatException.class, () -> CoordinateParser.parseDouble(s, 0, s.length()), s);
+            return;
+        }
+        double actual = CoordinateParser.parseDouble(s, 0, s.length());
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), s);
+    }
+
+    /**
+     * Returns a random number with the given number of significant digits, a random sign and a random dot.
+     */
+    private String digits(int n) {
+        StringBuilder sb = new StringBuilder(r.nextBoolean() ? "-" : "");
+        sb.append((char) ('1' + r.nextInt(9)));
+        for (int i = 1; i < n; i++) {
+            sb.append((char) ('0' + r.nextInt(10)));
+        }
+        if (r.nextBoolean()) {
+            sb.insert(sb.length() - r.nextInt(n), '.');
+        }
+        return sb.toString();
+    }
+}
@@ -2,6 +2,7 @@ package api;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -12,6 +13,9 @@ class DWGraph_AlgoTest {
     directed_weighted_graph g_Test = new DWGraph_DS();
     dw_graph_algorithms ga_Test = new DWGraph_Algo();
 
+    @TempDir
+    java.nio.file.Path dir;                         //The files of the tests, deleted after each test.
+
     node_data n0 = new NodeData();
     node_data n1 = new NodeData();
     node_data n2 = new NodeData();
@@ -129,15 +133,101 @@ class DWGraph_AlgoTest {
         assertNull(ga_Test.shortestPath(10, 10));
     }
 
+    /**
+     * Test for PathTable - the same paths as shortestPathDist and shortestPath.
+     */
+    @Test
+    void pathTable() {
+        PathTable t = new PathTable(g_Test);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                assertEquals(ga_Test.shortestPathDist(i, j), t.shortestPathDist(i, j));
+                assertEquals(ga_Test.shortestPath(i, j).size(), t.shortestPath(i, j).size());
+            }
+        }
+        assertEquals(5, t.shortestPath(0, 4).size());
+        assertEquals(-1, t.shortestPathDist(4, 7));
+        assertNull(t.shortestPath(8, 1));
+        assertNotNull(g_Test.removeEdge(2, 0));
+        t = new PathTable(g_Test);
+        assertEquals(-1, t.shortestPathDist(3, 0));
+        assertNull(t.shortestPath(3, 0));
+    }
+
+    /**
+     * Test for NodeIndex - sparse keys get the dense indexes 0..V-1 by every order,
+     * and a PathTable by a reordered index has the same paths.
+     */
+    @Test
+    void nodeIndex() {
+        directed_weighted_graph g = new DWGraph_DS();
+        int[] keys = {1000, -7, 42, 5, 99999};
+        for (int i = 0; i < keys.length; i++) {
+            node_data n = new NodeData(keys[i]);
+            n.setLocation(new GeoLocation(i % 2, i / 2, 0));
+            g.addNode(n);
+        }
+        g.addNode(new NodeData(3)); // Without a location.
+        g.connect(5, 1000, 1);
+        g.connect(1000, 99999, 2);
+        g.connect(99999, -7, 1.5);
+        g.connect(-7, 5, 4);
+        for (NodeIndex index : new NodeIndex[]{NodeIndex.of(g), NodeIndex.bfs(g), NodeIndex.hilbert(g)}) {
+            assertEquals(6, index.size());
+            for (int i = 0; i < index.size(); i++) {
+                assertEquals(i, index.indexOf(index.key(i)));
+            }
+            assertEquals(-1, index.indexOf(4));
+            PathTable t = new PathTable(g, index);
+            assertEquals(4.5, t.shortestPathDist(5, -7));
+            assertEquals(4, t.shortestPath(5, -7).size());
+            assertEquals(-1, t.shortestPathDist(3, 5));
+        }
+        assertEquals(3, NodeIndex.hilbert(g).key(5));
+        NodeIndex bfs = NodeIndex.bfs(g);
+        assertEquals(1, bfs.indexOf(99999) - bfs.indexOf(1000)); // Reached one after the other.
+        assertThrows(IllegalArgumentException.class, () -> NodeIndex.of(new int[]{1, 2, 1}));
+        assertThrows(IllegalArgumentException.class, () -> new PathTable(g, NodeIndex.of(new int[]{1})));
+    }
+
     /**
      * Test for save and load methods.
      */
     @Test
     void file() {
-        assertTrue(ga_Test.save("test1.txt"));	//Save graph to file.
-        assertTrue(ga_Test.load("test1.txt"));	//Loading graph from a file found.
-        assertFalse(ga_Test.load("test2.txt"));	//Loading graph from a file that not found.
+        String test1 = dir.resolve("test1.txt").toString(), test2 = dir.resolve("test2.txt").toString();
+        String gz = dir.resolve("test1.json.gz").toString();
+        assertTrue(ga_Test.save(test1));	//Save graph to file.
+        assertTrue(ga_Test.load(test1));	//Loading graph from a file found.
+        assertFalse(ga_Test.load(test2));	//Loading graph from a file that not found.
         assertFalse(ga_Test.load(""));			//Loading graph from nothing file.
         assertFalse(ga_Test.save(""));			//Save graph to nothing file.
+        assertTrue(ga_Test.save(gz));	//Save graph to a gzip file.
+        assertTrue(ga_Test.load(gz));
+        assertEquals(g_Test, ga_Test.getGraph());
+    }
+
+    /**
+     * Test for loading the old format of save (the fields of DWGraph_DS).
+     */
+    @Test
+    void oldFormat() throws java.io.IOException {
+        String old = "{\"nodeSize\":2,\"MC\":3,\"edgeSize\":1,\"nodes\":{"
+                + "\"0\":{\"key\":0,\"nodeInfo\":\"a\",\"nodeTag\":1,\"nodeWeight\":0.5,"
+                + "\"nodeGeoLocation\":{\"x\":1.5,\"y\":2.5,\"z\":0.0},\"dist\":0.0},"
+                + "\"1\":{\"key\":1,\"nodeInfo\":\"\",\"nodeTag\":0,\"nodeWeight\":0.0,\"dist\":0.0}},"
+                + "\"edges\":{\"0\":{\"1\":{\"src\":0,\"dest\":1,\"edgeWeight\":2.5,\"edgeTag\":4}}},\"ID\":2}";
+        String test3 = dir.resolve("test3.txt").toString();
+        java.nio.file.Files.write(dir.resolve("test3.txt"), old.getBytes());
+        assertTrue(ga_Test.load(test3));
+        directed_weighted_graph g = ga_Test.getGraph();
+        assertEquals(2, g.nodeSize());
+        assertEquals(1.5, g.getNode(0).getLocation().x());
+        assertEquals("a", g.getNode(0).getInfo());
+        assertEquals(2.5, g.getEdge(0, 1).getWeight());
+        assertEquals(4, g.getEdge(0, 1).getTag());
+        assertTrue(ga_Test.save(test3));
+        assertTrue(ga_Test.load(test3));
+        assertEquals(g, ga_Test.getGraph());
     }
 }
\ No newline at end of file
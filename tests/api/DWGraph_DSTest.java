@@ -139,4 +139,149 @@ class DWGraph_DSTest {
         assertEquals(8, g_Test.edgeSize());
         assertEquals(15, g_Test.getMC());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test for the copy constructor and equals method.
+     */
+    @Test
+    public void copyAndEquals() {
+        directed_weighted_graph copy = new DWGraph_DS(g_Test);
+        assertEquals(g_Test, copy);
+        assertEquals(copy, g_Test);
+        assertEquals(g_Test.hashCode(), copy.hashCode());
+        assertEquals(14, copy.getMC());
+        copy.getEdge(0, 1).setTag(3);               //The edges are copied.
+        assertNotEquals(g_Test, copy);
+        copy.getEdge(0, 1).setTag(0);
+        assertEquals(g_Test, copy);
+        node_data n5 = new NodeData();
+        copy.addNode(n5);                           //A copy gives new nodes new keys.
+        assertEquals(5, n5.getKey());
+        assertNotEquals(g_Test, copy);
+        g_Test.addNode(new NodeData());             //Nodes without edges.
+        assertEquals(g_Test, copy);
+        g_Test.connect(5, 0, 1);
+        copy.connect(0, 5, 1);
+        assertNotEquals(g_Test, copy);              //Same number of edges, different edges.
+        assertNotEquals(copy, g_Test);
+    }
+
+    /**
+     * Test for the listeners and the batches of changes.
+     */
+    @Test
+    public void listeners() {
+        DWGraph_DS g = (DWGraph_DS) g_Test;
+        java.util.List<java.util.List<GraphEvent>> calls = new java.util.ArrayList<>();
+        graph_listener l = events -> calls.add(new java.util.ArrayList<>(events));
+        g.addListener(l);
+        g.connect(3, 0, 4);
+        assertEquals(1, calls.size());
+        GraphEvent e = calls.get(0).get(0);
+        assertEquals(GraphEvent.Type.EDGE_ADDED, e.getType());
+        assertEquals(3, e.getSrc());
+        assertEquals(0, e.getDest());
+        assertEquals(15, e.getMC());
+        g.connect(3, 0, 4);                         //No change, no event.
+        assertEquals(1, calls.size());
+        g.beginBatch();
+        g.removeEdge(0, 1);
+        g.connect(0, 1, 2);                         //Removed and connected again - reweighted.
+        g.removeEdge(2, 3);
+        g.connect(2, 3, 1);                         //Same weight - no event.
+        assertEquals(1, calls.size());
+        g.endBatch();
+        assertEquals(2, calls.size());
+        assertEquals(1, calls.get(1).size());
+        e = calls.get(1).get(0);
+        assertEquals(GraphEvent.Type.EDGE_REWEIGHTED, e.getType());
+        assertEquals(6, e.getOldWeight());
+        assertEquals(2, e.getWeight());
+        g.removeNode(1);                            //One call: 2 in edges, 3 out edges and the node.
+        assertEquals(3, calls.size());
+        assertEquals(6, calls.get(2).size());
+        assertEquals(GraphEvent.Type.NODE_REMOVED, calls.get(2).get(5).getType());
+        assertEquals(g.getMC(), calls.get(2).get(5).getMC());
+        g.beginBatch();
+        g.removeNode(4);
+        g.addNode(new NodeData(4));
+        g.connect(3, 4, 1);                         //Same weight, but a new edge of a new node.
+        g.endBatch();
+        assertEquals(4, calls.size());
+        java.util.List<GraphEvent> events = calls.get(3);
+        assertEquals(4, events.size());
+        assertEquals(GraphEvent.Type.EDGE_REMOVED, events.get(0).getType());
+        assertEquals(GraphEvent.Type.NODE_REMOVED, events.get(1).getType());
+        assertEquals(GraphEvent.Type.NODE_ADDED, events.get(2).getType());
+        e = events.get(3);
+        assertEquals(GraphEvent.Type.EDGE_ADDED, e.getType());
+        assertEquals(3, e.getSrc());
+        assertEquals(4, e.getDest());
+        g.removeListener(l);
+        g.addNode(new NodeData());
+        assertEquals(4, calls.size());
+        assertThrows(IllegalStateException.class, g::endBatch);
+    }
+
+    /**
+     * Test for toString and the GraphWriter formats.
+     */
+    @Test
+    public void writers() throws java.io.IOException {
+        assertEquals("[]", new DWGraph_DS().toString());
+        g_Test.removeEdge(3, 4);                    //A node without out edges.
+        g_Test.addNode(new NodeData());             //A node which never had edges.
+        String s = g_Test.toString();
+        assertTrue(s.startsWith("[(0: {1- weight = 6.0, 2- weight = 9.0}) , "));
+        assertTrue(s.contains("(3: {})"));
+        assertTrue(s.endsWith("(5: {})]"));
+        StringBuilder sb = new StringBuilder();
+        ((DWGraph_DS) g_Test).writeTo(sb);
+        assertEquals(s, sb.toString());
+        sb.setLength(0);
+        GraphWriter.writeEdgeList(g_Test, sb);
+        assertEquals(8, sb.toString().split("\n").length);
+        assertTrue(sb.toString().startsWith("0 1 6.0\n0 2 9.0\n"));
+        sb.setLength(0);
+        GraphWriter.writeDot(g_Test, sb);
+        assertTrue(sb.toString().startsWith("digraph G {\n  0;\n"));
+        assertTrue(sb.toString().contains("  4 -> 1 [label=\"3.0\"];\n"));
+        assertTrue(sb.toString().endsWith("}\n"));
+    }
+
+    /**
+     * Test for NodeStore - the nodes of a graph in arrays.
+     */
+    @Test
+    public void nodeStore() {
+        g_Test.getNode(1).setLocation(new GeoLocation(1, 5, 0));
+        g_Test.getNode(3).setLocation(new GeoLocation(-2, 3, 1));
+        g_Test.getNode(3).setTag(7);
+        NodeStore store = NodeStore.of(g_Test);
+        assertEquals(5, store.size());
+        int i = store.indexOf(3);
+        assertEquals(3, store.key(i));
+        assertEquals(-2, store.x(i));
+        assertEquals(7, store.tag(i));
+        assertFalse(store.hasLocation(store.indexOf(0)));
+        assertNull(store.getNode(0).getLocation());
+        assertEquals(new GeoLocation(-2, 3, 1), store.getNode(3).getLocation());
+        assertEquals(-1, store.indexOf(9));
+        double[] box = new double[4];
+        store.bounds(box);                          //Nodes without a location are skipped.
+        assertEquals(-2, box[0]);
+        assertEquals(3, box[1]);
+        assertEquals(1, box[2]);
+        assertEquals(5, box[3]);
+        assertEquals(store.indexOf(1), store.nearest(0.5, 4.5));
+        store.getNode(1).setWeight(2.5);            //A view writes to the arrays.
+        assertEquals(2.5, store.weight(store.indexOf(1)));
+        assertEquals("", store.getNode(1).getInfo());
+        assertEquals(5, store.add(9, null));
+        assertThrows(IllegalArgumentException.class, () -> store.add(9, null));
+        int n = 0;
+        for (node_data v : store)
+            n++;
+        assertEquals(6, n);
+    }
+}
@@ -0,0 +1,213 @@
+package api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for DynamicShortestPaths class - random changes of a graph, after each one the paths are compared
+ * to Dijkstra's algorithm from scratch. The weights are whole numbers, so the lengths of the paths are exact.
+ */
+class DynamicShortestPathsTest {
+
+    static final int NODES = 30, SOURCE = 0, CHANGES = 20000;
+
+    DWGraph_DS g_Test = new DWGraph_DS();
+    Random r = new Random(1);
+
+    /**
+     * Builts a random graph with 30 nodes and about 60 edges.
+     */
+    @BeforeEach
+    public void buildingGraph() {
+        for (int i = 0; i < NODES; i++) {
+            g_Test.addNode(new NodeData());
+        }
+        for (int i = 0; i < 2 * NODES; i++) {
+            g_Test.connect(r.nextInt(NODES), r.nextInt(NODES), 1 + r.nextInt(10));
+        }
+    }
+
+    /**
+     * Test for the paths before any change, and after the source is removed.
+     */
+    @Test
+    public void paths() {
+        DynamicShortestPaths dsp = new DynamicShortestPaths(g_Test, SOURCE);
+        assertEquals(SOURCE, dsp.getSource());
+        check(dsp);
+        assertEquals(0.0, dsp.shortestPathDist(SOURCE));
+        assertEquals(1, dsp.shortestPath(SOURCE).size());
+        assertEquals(-1, dsp.shortestPathDist(NODES));          //A node that isn't in the graph.
+        assertNull(dsp.shortestPath(NODES));
+        g_Test.addListener(dsp);
+        g_Test.removeNode(SOURCE);
+        for (int i = 0; i < NODES; i++) {
+            assertEquals(-1, dsp.shortestPathDist(i));
+        }
+        g_Test.addNode(new NodeData(SOURCE));
+        g_Test.connect(SOURCE, 1, 4);
+        assertEquals(4.0, dsp.shortestPathDist(1));
+        check(dsp);
+    }
+
+    /**
+     * Test for the reports of the changes by edgeInserted, edgeRemoved, nodeAdded and nodeRemoved.
+     */
+    @Test
+    public void reports() {
+        DynamicShortestPaths dsp = new DynamicShortestPaths(g_Test, SOURCE);
+        for (int i = 0; i < CHANGES; i++) {
+            change(dsp);
+            check(dsp);
+        }
+        assertEquals(1, dsp.getRecomputes());                   //Every change was reported.
+    }
+
+    /**
+     * Test for the changes reported by the graph to its listener, one by one.
+     */
+    @Test
+    public void listener() {
+        DynamicShortestPaths dsp = new DynamicShortestPaths(g_Test, SOURCE);
+        g_Test.addListener(dsp);
+        for (int i = 0; i < CHANGES; i++) {
+            change(null);
+            check(dsp);
+        }
+        assertEquals(1, dsp.getRecomputes());
+    }
+
+    /**
+     * Test for the changes reported by the graph to its listener in batches (beginBatch and endBatch).
+     */
+    @Test
+    public void batches() {
+        g_Test.removeEdge(SOURCE, 1);
+        g_Test.connect(SOURCE, 1, 1);
+        g_Test.removeEdge(1, 2);
+        g_Test.connect(1, 2, 1);
+        DynamicShortestPaths dsp = new DynamicShortestPaths(g_Test, SOURCE);
+        g_Test.addListener(dsp);
+        assertEquals(2.0, dsp.shortestPathDist(2));
+        g_Test.beginBatch();                                    //A node and its in edge again, with the same weight.
+        g_Test.removeNode(2);
+        g_Test.addNode(new NodeData(2));
+        g_Test.connect(1, 2, 1);
+        g_Test.endBatch();
+        assertEquals(2.0, dsp.shortestPathDist(2));
+        check(dsp);
+        for (int i = 0; i < CHANGES; ) {
+            g_Test.beginBatch();
+            for (int j = 1 + r.nextInt(5); j > 0; j--, i++) {
+                change(null);
+            }
+            g_Test.endBatch();
+            check(dsp);
+        }
+        assertEquals(1, dsp.getRecomputes());
+    }
+
+    /**
+     * Makes a random change of the graph (never removes the source) - connect, removeEdge, a new weight
+     * (removeEdge and connect), removeNode or addNode. Reports the change to dsp if it is not null.
+     */
+    private void change(DynamicShortestPaths dsp) {
+        int a = r.nextInt(NODES), b = r.nextInt(NODES), w = 1 + r.nextInt(10);
+        int MC = g_Test.getMC();
+        int op = r.nextInt(20);
+        if (op < 10) {
+            g_Test.connect(a, b, w);
+            if (dsp != null && g_Test.getMC() != MC) {
+                dsp.edgeInserted(a, b);
+            }
+        } else if (op < 13) {
+            if (g_Test.removeEdge(a, b) != null && dsp != null) {
+                dsp.edgeRemoved(a, b);
+            }
+        } else if (op < 17) {
+            if (g_Test.removeEdge(a, b) != null) {
+                if (dsp != null) {
+                    dsp.edgeRemoved(a, b);
+                }
+                g_Test.connect(a, b, w);
+                if (dsp != null) {
+                    dsp.edgeInserted(a, b);
+                }
+            }
+        } else if (op < 18) {
+            if (a != SOURCE && g_Test.removeNode(a) != null && dsp != null) {
+                dsp.nodeRemoved(a);
+            }
+        } else {
+            g_Test.addNode(new NodeData(a));
+            if (dsp != null && g_Test.getMC() != MC) {
+                dsp.nodeAdded(a);
+            }
+        }
+    }
+
+    /**
+     * Checks the distances and the paths of dsp to every node against Dijkstra's algorithm from scratch -
+     * a path starts at the source, ends at the node, goes over edges of the graph and its length is the distance.
+     */
+    private void check(DynamicShortestPaths dsp) {
+        HashMap<Integer, Double> expected = dijkstra(g_Test, SOURCE);
+        for (int v = 0; v < NODES; v++) {
+            Double d = expected.get(v);
+            assertEquals(d == null ? -1 : d, dsp.shortestPathDist(v), "The distance to " + v);
+            List<node_data> path = dsp.shortestPath(v);
+            if (d == null) {
+                assertNull(path);
+                continue;
+            }
+            assertEquals(SOURCE, path.get(0).getKey());
+            assertEquals(v, path.get(path.size() - 1).getKey());
+            double length = 0;
+            for (int i = 1; i < path.size(); i++) {
+                edge_data e = g_Test.getEdge(path.get(i - 1).getKey(), path.get(i).getKey());
+                assertNotNull(e, "The path to " + v + " goes over an edge which isn't in the graph");
+                length += e.getWeight();
+            }
+            assertEquals((double) d, length, "The length of the path to " + v);
+        }
+    }
+
+    /**
+     * Returns the distances from the given source to every reachable node, by Dijkstra's algorithm.
+     */
+    private static HashMap<Integer, Double> dijkstra(directed_weighted_graph g, int source) {
+        HashMap<Integer, Double> dist = new HashMap<>();
+        if (g.getNode(source) == null) {
+            return dist;
+        }
+        PriorityQueue<double[]> q = new PriorityQueue<>(Comparator.comparingDouble((double[] x) -> x[1]));
+        q.add(new double[]{source, 0});
+        while (!q.isEmpty()) {
+            double[] rm = q.poll();
+            int u = (int) rm[0];
+            if (dist.containsKey(u)) {
+                continue;
+            }
+            dist.put(u, rm[1]);
+            Collection<edge_data> out = g.getE(u);
+            if (out == null) {
+                continue;
+            }
+            for (edge_data e : out) {
+                if (!dist.containsKey(e.getDest())) {
+                    q.add(new double[]{e.getDest(), rm[1] + e.getWeight()});
+                }
+            }
+        }
+        return dist;
+    }
+}
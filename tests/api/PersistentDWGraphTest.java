@@ -0,0 +1,133 @@
+package api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for PersistentDWGraph class.
+ */
+class PersistentDWGraphTest {
+
+    PersistentDWGraph g_Test;
+
+    /**
+     * Builts a graph with 5 nodes and 9 edges (the graph of DWGraph_DSTest).
+     */
+    @BeforeEach
+    public void buildingGraph() {
+        g_Test = PersistentDWGraph.empty();
+        for (int i = 0; i < 5; i++) {
+            g_Test = g_Test.withNode(new NodeData());
+        }
+        g_Test = g_Test.withEdge(0, 1, 6).withEdge(0, 2, 9).withEdge(1, 2, 2).withEdge(1, 3, 7).withEdge(1, 4, 5)
+                .withEdge(2, 0, 3).withEdge(2, 3, 1).withEdge(3, 4, 1).withEdge(4, 1, 3);
+        assertEquals(5, g_Test.nodeSize());
+        assertEquals(9, g_Test.edgeSize());
+        assertEquals(14, g_Test.getMC());
+    }
+
+    /**
+     * Test for withNode and withEdge methods - the old version doesn't change.
+     */
+    @Test
+    public void with() {
+        String before = g_Test.toString();
+        PersistentDWGraph g = g_Test.withNode(new NodeData());
+        assertEquals(6, g.nodeSize());
+        assertNotNull(g.getNode(5));
+        assertNull(g_Test.getNode(5));
+        g = g.withEdge(5, 0, 2).withEdge(3, 5, 1);
+        assertEquals(11, g.edgeSize());
+        assertEquals(17, g.getMC());
+        assertEquals(2, g.getE(3).size());
+        assertEquals(1, g_Test.getE(3).size());
+        assertNull(g_Test.getEdge(3, 5));
+        assertTrue(g == g.withEdge(3, 5, 4));           //An existing edge isn't changed.
+        assertTrue(g == g.withEdge(3, 3, 4));           //No edge from a node to itself.
+        assertTrue(g == g.withEdge(3, 17, 4));          //No edge to a node which isn't in the graph.
+        assertEquals(1.0, g.getEdge(3, 5).getWeight());
+        assertEquals(5, g_Test.nodeSize());
+        assertEquals(9, g_Test.edgeSize());
+        assertEquals(14, g_Test.getMC());
+        assertEquals(before, g_Test.toString());
+    }
+
+    /**
+     * Test for withoutEdge and withoutNode methods - the in and out edges of a removed node are removed,
+     * and the old version doesn't change.
+     */
+    @Test
+    public void without() {
+        String before = g_Test.toString();
+        PersistentDWGraph g = g_Test.withoutEdge(1, 2);
+        assertNull(g.getEdge(1, 2));
+        assertNotNull(g_Test.getEdge(1, 2));
+        assertEquals(8, g.edgeSize());
+        assertTrue(g == g.withoutEdge(1, 2));
+        g = g_Test.withoutNode(1);                      //Node 1 has 3 out edges and 2 in edges.
+        assertNull(g.getNode(1));
+        assertEquals(4, g.nodeSize());
+        assertEquals(4, g.edgeSize());
+        assertNull(g.getEdge(0, 1));
+        assertNull(g.getEdge(4, 1));
+        assertNull(g.getE(1));
+        assertEquals(1, g.getE(0).size());
+        assertEquals(0, g.getE(4) == null ? 0 : g.getE(4).size());
+        for (node_data n : g.getV()) {
+            if (g.getE(n.getKey()) == null) {
+                continue;
+            }
+            for (edge_data e : g.getE(n.getKey())) {
+                assertNotNull(g.getNode(e.getDest()));
+            }
+        }
+        assertTrue(g == g.withoutNode(1));
+        g = g.withNode(new NodeData(1)).withEdge(4, 1, 8);     //The key again - without the old in edges.
+        assertEquals(8.0, g.getEdge(4, 1).getWeight());
+        assertNull(g.getEdge(0, 1));
+        assertEquals(5, g_Test.nodeSize());
+        assertEquals(9, g_Test.edgeSize());
+        assertEquals(3.0, g_Test.getEdge(4, 1).getWeight());
+        assertEquals(before, g_Test.toString());
+    }
+
+    /**
+     * Test for the methods which change a graph - not supported.
+     */
+    @Test
+    public void frozen() {
+        assertThrows(UnsupportedOperationException.class, () -> g_Test.addNode(new NodeData()));
+        assertThrows(UnsupportedOperationException.class, () -> g_Test.connect(3, 0, 1));
+        assertThrows(UnsupportedOperationException.class, () -> g_Test.removeNode(0));
+        assertThrows(UnsupportedOperationException.class, () -> g_Test.removeEdge(0, 1));
+        assertEquals(5, g_Test.nodeSize());
+        assertEquals(9, g_Test.edgeSize());
+        assertEquals(14, g_Test.getMC());
+    }
+
+    /**
+     * Test for of and equals methods - equal to the DWGraph_DS it was made of.
+     */
+    @Test
+    public void ofAndEquals() {
+        directed_weighted_graph g = new DWGraph_DS();
+        for (int i = 0; i < 5; i++) {
+            g.addNode(new NodeData());
+        }
+        for (node_data n : g_Test.getV()) {
+            for (edge_data e : g_Test.getE(n.getKey())) {
+                g.connect(e.getSrc(), e.getDest(), e.getWeight());
+            }
+        }
+        assertEquals(g, g_Test);
+        assertEquals(g_Test, g);
+        PersistentDWGraph p = PersistentDWGraph.of(g);
+        assertEquals(g_Test, p);
+        assertTrue(p == PersistentDWGraph.of(p));
+        assertNotEquals(g_Test, p.withoutEdge(0, 1));
+        g.removeEdge(0, 1);
+        assertEquals(g_Test, p);                        //A copy - doesn't follow the source graph.
+    }
+}
@@ -0,0 +1,129 @@
+package api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for PersistentIntMap class.
+ */
+class PersistentIntMapTest {
+
+    /**
+     * Test for put, get and remove methods.
+     */
+    @Test
+    public void putGetRemove() {
+        PersistentIntMap<String> m = PersistentIntMap.empty();
+        assertTrue(m.isEmpty());
+        assertNull(m.get(3));
+        m = m.put(3, "a").put(-3, "b").put(0, "c");
+        assertEquals(3, m.size());
+        assertEquals("a", m.get(3));
+        assertEquals("b", m.get(-3));
+        assertEquals("c", m.get(0));
+        assertNull(m.get(4));
+        assertTrue(m == m.put(3, m.get(3)));            //The same value - the same map.
+        assertTrue(m == m.remove(4));                   //A key which isn't in the map.
+        m = m.put(3, "d");                              //A new value of a key.
+        assertEquals(3, m.size());
+        assertEquals("d", m.get(3));
+        m = m.remove(3).remove(-3).remove(0);
+        assertTrue(m.isEmpty());
+        assertFalse(m.iterator().hasNext());
+        PersistentIntMap<String> empty = m;
+        assertThrows(NullPointerException.class, () -> empty.put(1, null));
+    }
+
+    /**
+     * Test for keys which share the slots of the trie - the same low bits (a node is split on put,
+     * and collapses back on remove), down to keys which differ only in the highest bit.
+     */
+    @Test
+    public void collisions() {
+        int[] keys = {7, 7 + 32, 7 + 32 * 32, 7 + (1 << 25), 7 + (1 << 30), 7 | (1 << 31), 7 + 32 * 33, -1, Integer.MAX_VALUE};
+        PersistentIntMap<Integer> m = PersistentIntMap.empty();
+        for (int i = 0; i < keys.length; i++) {
+            m = m.put(keys[i], i);
+            assertEquals(i + 1, m.size());
+            for (int j = 0; j <= i; j++) {
+                assertEquals(Integer.valueOf(j), m.get(keys[j]));
+            }
+            assertNull(m.get(7 + 64));
+        }
+        assertEquals(keys.length, count(m));
+        for (int i = 0; i < keys.length; i++) {         //Collapses the trie from the first key.
+            m = m.remove(keys[i]);
+            assertEquals(keys.length - i - 1, m.size());
+            assertEquals(keys.length - i - 1, count(m));
+            assertNull(m.get(keys[i]));
+            for (int j = i + 1; j < keys.length; j++) {
+                assertEquals(Integer.valueOf(j), m.get(keys[j]));
+            }
+        }
+        for (int i = keys.length - 1; i >= 0; i--) {    //And from the last key.
+            m = m.put(keys[i], i);
+        }
+        for (int i = keys.length - 1; i >= 0; i--) {
+            m = m.remove(keys[i]);
+            for (int j = 0; j < i; j++) {
+                assertEquals(Integer.valueOf(j), m.get(keys[j]));
+            }
+        }
+        assertTrue(m.isEmpty());
+    }
+
+    /**
+     * Test against a HashMap - random puts and removes of colliding keys, every old version stays as it was.
+     */
+    @Test
+    public void random() {
+        Random r = new Random(1);
+        PersistentIntMap<Integer> m = PersistentIntMap.empty();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        List<PersistentIntMap<Integer>> versions = new ArrayList<>();
+        List<HashMap<Integer, Integer>> contents = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = r.nextInt(64) * (r.nextBoolean() ? 32 : 1 << 26) + (r.nextBoolean() ? 0 : Integer.MIN_VALUE);
+            if (r.nextInt(3) == 0) {
+                m = m.remove(key);
+                expected.remove(key);
+            } else {
+                m = m.put(key, i);
+                expected.put(key, i);
+            }
+            assertEquals(expected.size(), m.size());
+            assertEquals(expected.get(key), m.get(key));
+            if (i % 1000 == 0) {
+                versions.add(m);
+                contents.add(new HashMap<>(expected));
+            }
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            PersistentIntMap<Integer> v = versions.get(i);
+            assertEquals(contents.get(i).size(), v.size());
+            assertEquals(contents.get(i).size(), count(v));
+            for (int key : contents.get(i).keySet()) {
+                assertEquals(contents.get(i).get(key), v.get(key));
+            }
+            assertEquals(new HashSet<>(contents.get(i).values()), new HashSet<>(v.values()));
+        }
+    }
+
+    /**
+     * Returns the number of values the iterator of the given map returns.
+     */
+    private static int count(PersistentIntMap<?> m) {
+        int ans = 0;
+        for (Object o : m) {
+            ans++;
+        }
+        return ans;
+    }
+}